@@ -0,0 +1,59 @@
+package aladdin;
+
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the tasks and console setup shared by the benchmarks.
+ */
+public class BenchmarkTasks {
+    /** Whether console output is silenced */
+    private static boolean isSilenced;
+
+    /**
+     * Returns a TaskList with an even mix of todo, deadline and event tasks.
+     *
+     * @param taskCount Number of tasks in the list.
+     * @return The list of tasks.
+     */
+    public static TaskList createTaskList(int taskCount) {
+        TaskList taskList = new TaskList();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+        for (int i = 0; i < taskCount; i++) {
+            LocalDateTime dateTime = start.plusHours(i % 8760);
+            Task task;
+            if (i % 3 == 0) {
+                task = new Todo("read book " + i);
+            } else if (i % 3 == 1) {
+                task = new Deadline("return book " + i, dateTime);
+            } else {
+                task = new Event("project meeting " + i, dateTime, dateTime.plusHours(2));
+            }
+            task.setDone(i % 2 == 0);
+            taskList.addToTaskList(task);
+        }
+        return taskList;
+    }
+
+    /**
+     * Discards console output, so messages printed by Aladdin do not slow down or clutter the benchmarks.
+     */
+    public static void silenceConsole() {
+        if (!isSilenced) {
+            Ui.setOutput(Writer.nullWriter());
+            isSilenced = true;
+        }
+    }
+
+    /**
+     * Restores console output discarded by {@link #silenceConsole()}.
+     */
+    public static void restoreConsole() {
+        if (isSilenced) {
+            Ui.setOutput(null);
+            isSilenced = false;
+        }
+    }
+
+}
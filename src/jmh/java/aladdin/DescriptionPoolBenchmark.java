@@ -0,0 +1,83 @@
+package aladdin;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Represents benchmarks of decoding the descriptions of a storage file, with and without a description pool.
+ * Run with -prof gc to compare the bytes allocated, which is the heap the descriptions hold once loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DescriptionPoolBenchmark {
+    /** Number of descriptions decoded */
+    private static final int DESCRIPTION_COUNT = 100000;
+
+    @Param({"10", "1000", "100000"})
+    private int distinctCount;
+
+    /** Encoded descriptions, one after another */
+    private byte[] encoded;
+    /** Start of each description in encoded, followed by the end of the last one */
+    private int[] starts;
+    /** Decoded descriptions, kept so they are not collected before they are measured */
+    private String[] decoded;
+
+    /**
+     * Encodes DESCRIPTION_COUNT descriptions, cycling through distinctCount different ones.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder descriptions = new StringBuilder();
+        this.starts = new int[DESCRIPTION_COUNT + 1];
+        for (int i = 0; i < DESCRIPTION_COUNT; i++) {
+            this.starts[i] = descriptions.length();
+            descriptions.append("submit timesheet ").append(i % this.distinctCount);
+        }
+        this.starts[DESCRIPTION_COUNT] = descriptions.length();
+        this.encoded = descriptions.toString().getBytes(StandardCharsets.UTF_8);
+        this.decoded = new String[DESCRIPTION_COUNT];
+    }
+
+    /**
+     * Decodes every description into its own String.
+     */
+    @Benchmark
+    public String[] decodeDescriptions() {
+        for (int i = 0; i < DESCRIPTION_COUNT; i++) {
+            this.decoded[i] = new String(this.encoded, this.starts[i], this.starts[i + 1] - this.starts[i],
+                    StandardCharsets.UTF_8);
+        }
+        return this.decoded;
+    }
+
+    /**
+     * Decodes every description through a new pool, as a load would.
+     */
+    @Benchmark
+    public String[] internDescriptions() {
+        DescriptionPool pool = new DescriptionPool(4096);
+        for (int i = 0; i < DESCRIPTION_COUNT; i++) {
+            this.decoded[i] = pool.intern(this.encoded, this.starts[i], this.starts[i + 1]);
+        }
+        return this.decoded;
+    }
+
+}
@@ -0,0 +1,37 @@
+package aladdin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Represents benchmarks of deserialising a single line of a storage file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeserialiseBenchmark {
+    @Param({"T|1|read book", "D|0|return book|6-6-2026 1800", "E|0|project meeting|6-8-2026 1400|6-8-2026 1600"})
+    private String line;
+
+    /**
+     * Deserialises the line into a task.
+     */
+    @Benchmark
+    public Task deserialiseTask() {
+        return Storage.deserialiseTask(this.line);
+    }
+
+}
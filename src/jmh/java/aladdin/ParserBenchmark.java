@@ -0,0 +1,38 @@
+package aladdin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Represents benchmarks of parsing each type of user command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"list", "mark 12", "unmark 12", "delete 12", "todo read book", "deadline return book /by 6-6-2026 1800",
+        "event project meeting /from 6-8-2026 1400 /to 6-8-2026 1600", "find book"})
+    private String userInput;
+
+    /**
+     * Parses the user command.
+     */
+    @Benchmark
+    public Command parseUserCommand() throws AladdinException {
+        return Parser.parseUserCommand(this.userInput);
+    }
+
+}
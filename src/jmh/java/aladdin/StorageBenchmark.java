@@ -0,0 +1,94 @@
+package aladdin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Represents benchmarks of loading and saving storage files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({"TEXT", "BINARY"})
+    private Storage.Format format;
+
+    private Path directory;
+    private String filePath;
+    private TaskList taskList;
+
+    /**
+     * Writes a storage file with taskCount tasks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, AladdinException {
+        BenchmarkTasks.silenceConsole();
+        this.directory = Files.createTempDirectory("aladdin-jmh");
+        this.filePath = this.directory.resolve("aladdin").toString();
+        this.taskList = BenchmarkTasks.createTaskList(this.taskCount);
+
+        Storage storage = new Storage(this.filePath, this.format);
+        storage.save(this.taskList);
+        storage.close();
+    }
+
+    /**
+     * Deletes the storage file and its directory.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkTasks.restoreConsole();
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Loads every task in the storage file.
+     */
+    @Benchmark
+    public TaskList load() throws AladdinException {
+        TaskList loadedTaskList = new TaskList();
+        Storage storage = new Storage(this.filePath, this.format);
+        storage.load(loadedTaskList);
+        storage.close();
+        return loadedTaskList;
+    }
+
+    /**
+     * Saves every task to the storage file.
+     */
+    @Benchmark
+    public void save() throws AladdinException {
+        Storage storage = new Storage(this.filePath, this.format);
+        storage.save(this.taskList);
+        storage.close();
+    }
+
+}
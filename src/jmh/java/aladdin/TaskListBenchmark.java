@@ -0,0 +1,61 @@
+package aladdin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Represents benchmarks of the list and find commands on a TaskList.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    /** Keywords matching a few tasks, and a third of the tasks */
+    @Param({"book 42", "meeting"})
+    private String keyword;
+
+    private TaskList taskList;
+
+    /**
+     * Creates a TaskList with taskCount tasks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.taskList = BenchmarkTasks.createTaskList(this.taskCount);
+    }
+
+    /**
+     * Searches the tasks for the keyword.
+     */
+    @Benchmark
+    public String searchTasks() {
+        return this.taskList.searchTasks(this.keyword);
+    }
+
+    /**
+     * Formats every task for the list command.
+     */
+    @Benchmark
+    public String listTasks() {
+        return this.taskList.toString();
+    }
+
+}
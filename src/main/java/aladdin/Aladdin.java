@@ -1,7 +1,19 @@
 package aladdin;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents an Aladdin chatbot.
@@ -18,6 +30,43 @@ public class Aladdin {
 
     /** File Path to Store Tasks */
     private static final String TASK_FILE_PATH = "data/aladdin.txt";
+    /** File Path to Store Tasks in Binary Format */
+    private static final String BINARY_TASK_FILE_PATH = "data/aladdin.bin";
+    /** System property for when changes are written, either command, interval or exit */
+    private static final String DURABILITY_PROPERTY = "aladdin.durability";
+    /** System property for the time in milliseconds between writes, for interval durability */
+    private static final String DURABILITY_MILLIS_PROPERTY = "aladdin.durability.millis";
+    /** System property for the storage file format, either text or binary */
+    private static final String STORAGE_FORMAT_PROPERTY = "aladdin.storage.format";
+    /** System property for the number of logged changes that triggers a compaction */
+    private static final String COMPACT_RECORDS_PROPERTY = "aladdin.compact.records";
+    /** System property for the log file size in bytes that triggers a compaction */
+    private static final String COMPACT_BYTES_PROPERTY = "aladdin.compact.bytes";
+    /** System property for whether saved changes are forced to the storage device, true or false */
+    private static final String FSYNC_PROPERTY = "aladdin.fsync";
+    /** System property for whether tasks are only read from the storage file when needed, true or false */
+    private static final String PAGED_PROPERTY = "aladdin.paged";
+    /** System property for the number of pages of tasks kept in memory, when paged */
+    private static final String PAGED_CACHE_PROPERTY = "aladdin.paged.cache";
+    /** System property for whether the task list can be shared by several threads, true or false */
+    private static final String CONCURRENT_PROPERTY = "aladdin.concurrent";
+    /** System property for whether tasks are packed into primitive arrays to save memory, true or false */
+    private static final String PACKED_PROPERTY = "aladdin.packed";
+    /** System property for the number of task lines kept rendered for display, or 0 to render them every time */
+    private static final String RENDER_CACHE_PROPERTY = "aladdin.render.cache";
+
+    /** Command-line option to run the commands in a file */
+    private static final String BATCH_OPTION = "--batch";
+    /** Command-line option for the number of commands run between saves, in batch mode */
+    private static final String CHECKPOINT_OPTION = "--checkpoint";
+    /** Usage of the batch mode command-line options */
+    private static final String BATCH_USAGE = "Usage: --batch {command file} [--checkpoint {number of commands}]";
+    /** Number of failed commands listed in the summary of a batch run */
+    private static final int MAX_BATCH_FAILURES_SHOWN = 20;
+    /** Command-line option to serve users over the network, on a port of this machine */
+    private static final String SERVER_OPTION = "--server";
+    /** Usage of the server mode command-line options */
+    private static final String SERVER_USAGE = "Usage: --server {port, or 0 for any free port}";
 
     /** Name of chatbot */
     private String name;
@@ -25,6 +74,12 @@ public class Aladdin {
     private TaskList taskList;
     /** Storage File */
     private Storage storage;
+    /** Number of tasks listed in each page, or 0 if not listing in pages */
+    private int listPageSize;
+    /** Index of the first task in the next page to list */
+    private int listNextIndex;
+    /** Lock held while a command changes the task list, shared by every session of the chatbot */
+    private final ReentrantLock changeLock;
 
     /**
      * Creates an Aladdin chatbot instance.
@@ -32,12 +87,206 @@ public class Aladdin {
      * @param name Name of the chatbot.
      */
     public Aladdin(String name) {
+        this(name, false);
+    }
+
+    /**
+     * Creates an Aladdin chatbot instance, with its task list and storage selected by system properties.
+     *
+     * @param name Name of the chatbot.
+     * @param isShared If several users' sessions share the task list at once, true. Otherwise, false.
+     */
+    private Aladdin(String name, boolean isShared) {
+        this(name, Aladdin.createTaskList(isShared), Aladdin.createStorage(Aladdin.getStorageFormat()));
+        this.storage.setCompactionThreshold(
+                Integer.getInteger(COMPACT_RECORDS_PROPERTY, Storage.DEFAULT_COMPACT_RECORDS),
+                Long.getLong(COMPACT_BYTES_PROPERTY, Storage.DEFAULT_COMPACT_BYTES));
+        this.storage.setDurability(Aladdin.getDurability(),
+                Long.getLong(DURABILITY_MILLIS_PROPERTY, MutationLog.DEFAULT_INTERVAL_MILLIS));
+        this.storage.setSynced(Boolean.getBoolean(FSYNC_PROPERTY));
+        // A packed list creates new tasks each time they are read, so their lines could never be found again
+        if (!(this.taskList instanceof PackedTaskList)) {
+            this.taskList.setRenderCache(new RenderCache(Integer.getInteger(RENDER_CACHE_PROPERTY,
+                    RenderCache.DEFAULT_CAPACITY)));
+        }
+    }
+
+    /**
+     * Creates an Aladdin chatbot instance with a given task list and storage file.
+     *
+     * @param name Name of the chatbot.
+     * @param taskList Task list of the chatbot.
+     * @param storage Storage file of the chatbot.
+     */
+    Aladdin(String name, TaskList taskList, Storage storage) {
         this.name = name;
-        this.taskList = new TaskList();
-        this.storage = new Storage(TASK_FILE_PATH);
+        this.taskList = taskList;
+        this.storage = storage;
+        this.changeLock = new ReentrantLock();
+    }
+
+    /**
+     * Creates a session of an Aladdin chatbot, sharing its task list and storage file.
+     *
+     * @param chatbot The chatbot whose tasks are shared.
+     */
+    private Aladdin(Aladdin chatbot) {
+        this.name = chatbot.name;
+        this.taskList = chatbot.taskList;
+        this.storage = chatbot.storage;
+        this.changeLock = chatbot.changeLock;
+    }
+
+    /**
+     * Returns a session for another user of the chatbot, with the same tasks but its own pages of listing.
+     *
+     * @return The new session.
+     */
+    Aladdin newSession() {
+        return new Aladdin(this);
+    }
+
+    /**
+     * Returns the kind of task list selected by system properties.
+     * A task list shared by several sessions is always a ConcurrentTaskList, as sessions read it without locking.
+     */
+    private static TaskList createTaskList(boolean isShared) {
+        if (isShared) {
+            return new ConcurrentTaskList();
+        } else if (Boolean.getBoolean(PAGED_PROPERTY)) {
+            return new PagedTaskList(Integer.getInteger(PAGED_CACHE_PROPERTY, PagedTaskList.DEFAULT_CACHE_PAGES));
+        } else if (Boolean.getBoolean(PACKED_PROPERTY)) {
+            return new PackedTaskList();
+        } else if (Boolean.getBoolean(CONCURRENT_PROPERTY)) {
+            return new ConcurrentTaskList();
+        }
+        return new TaskList();
+    }
+
+    /**
+     * Returns when changes are written to storage, selected by system property.
+     * Every command by default.
+     */
+    private static MutationLog.Durability getDurability() {
+        String durability = System.getProperty(DURABILITY_PROPERTY, "command");
+        if (durability.equalsIgnoreCase("interval")) {
+            return MutationLog.Durability.INTERVAL;
+        } else if (durability.equalsIgnoreCase("exit")) {
+            return MutationLog.Durability.ON_EXIT;
+        } else {
+            return MutationLog.Durability.EVERY_COMMAND;
+        }
+    }
+
+    /**
+     * Returns the storage file format selected by system property, text by default.
+     */
+    private static Storage.Format getStorageFormat() {
+        String format = System.getProperty(STORAGE_FORMAT_PROPERTY, "text");
+        return format.equalsIgnoreCase("binary") ? Storage.Format.BINARY : Storage.Format.TEXT;
+    }
+
+    /**
+     * Returns the command file given after the batch option.
+     *
+     * @param args Command-line arguments, starting with the batch option.
+     * @return Path of the command file.
+     * @throws AladdinException If no readable command file is given.
+     */
+    private static Path getBatchCommandFile(String[] args) throws AladdinException {
+        if (args.length < 2) {
+            throw new AladdinException("No command file given." + System.lineSeparator() + BATCH_USAGE);
+        }
+
+        try {
+            Path commandFile = Path.of(args[1]);
+            if (!Files.isReadable(commandFile)) {
+                throw new AladdinException("Command file " + args[1] + " cannot be read.");
+            }
+            return commandFile;
+
+        } catch (InvalidPathException e) {
+            throw new AladdinException("Invalid command file " + args[1] + ".");
+        }
+    }
+
+    /**
+     * Returns the number of commands run between saves, given after the checkpoint option, or 0 if not given.
+     *
+     * @param args Command-line arguments, starting with the batch option and command file.
+     * @return Number of commands between saves, or 0 to save only at the end.
+     * @throws AladdinException If the options after the command file are invalid.
+     */
+    private static int getCheckpointInterval(String[] args) throws AladdinException {
+        if (args.length == 2) {
+            return 0;
+        } else if ((args.length != 4) || !args[2].equals(CHECKPOINT_OPTION)) {
+            throw new AladdinException("Invalid options." + System.lineSeparator() + BATCH_USAGE);
+        }
+
+        try {
+            int checkpointInterval = Integer.parseInt(args[3]);
+            if (checkpointInterval <= 0) {
+                throw new NumberFormatException();
+            }
+            return checkpointInterval;
+
+        } catch (NumberFormatException e) {
+            throw new AladdinException("Checkpoint must be a positive number of commands.");
+        }
+    }
+
+    /**
+     * Returns the port given after the server option.
+     *
+     * @param args Command-line arguments, starting with the server option.
+     * @return Port to listen on, or 0 for any free port.
+     * @throws AladdinException If no valid port is given, or paged or packed tasks are selected.
+     */
+    private static int getServerPort(String[] args) throws AladdinException {
+        if (Boolean.getBoolean(PAGED_PROPERTY) || Boolean.getBoolean(PACKED_PROPERTY)) {
+            throw new AladdinException("Paged and packed task lists cannot be shared by several users, so cannot be "
+                    + "used with " + SERVER_OPTION + ".");
+        }
+
+        try {
+            if (args.length != 2) {
+                throw new NumberFormatException();
+            }
+            int port = Integer.parseInt(args[1]);
+            if ((port < 0) || (port > 65535)) {
+                throw new NumberFormatException();
+            }
+            return port;
+
+        } catch (NumberFormatException e) {
+            throw new AladdinException("Invalid port." + System.lineSeparator() + SERVER_USAGE);
+        }
+    }
+
+    private static Storage createStorage(Storage.Format format) {
+        if (format == Storage.Format.BINARY) {
+            return new Storage(BINARY_TASK_FILE_PATH, Storage.Format.BINARY);
+        }
+        return new Storage(TASK_FILE_PATH, Storage.Format.TEXT);
     }
 
     private void loadTasksFromFile() {
+        try {
+            // Convert tasks saved in the other format, if none are saved in this format
+            Storage.Format format = Aladdin.getStorageFormat();
+            Storage otherStorage = Aladdin.createStorage((format == Storage.Format.BINARY)
+                    ? Storage.Format.TEXT
+                    : Storage.Format.BINARY);
+            if (!storage.hasSavedTasks() && otherStorage.hasSavedTasks()) {
+                storage.convertFrom(otherStorage);
+                Ui.printMsg("Converted saved tasks to " + format.name().toLowerCase() + " format.");
+            }
+
+        } catch (AladdinException e) {
+            Ui.printException(e);
+        }
+
         try {
             storage.load(this.taskList);
 
@@ -47,12 +296,11 @@ public class Aladdin {
     }
 
     /**
-     * Saves tasks to file whenever task list changes.
-     * If no tasks in taskList, create an empty file.
+     * Closes the storage file before exiting.
      */
-    private void saveTasksToFile() {
+    private void closeStorage() {
         try {
-            storage.save(this.taskList);
+            storage.close();
 
         } catch (AladdinException e) {
             Ui.printException(e);
@@ -71,85 +319,308 @@ public class Aladdin {
     /**
      * Adds the user's task to list.
      *
-     * @param formattedTask Array of substrings of correctly formatted task properties.
+     * @param command Parsed todo, deadline or event command.
+     * @throws AladdinException if task type is invalid, or the task cannot be saved.
+     */
+    private void addTask(Command command) throws AladdinException {
+        Task newTask = this.createTask(command);
+
+        // Add the new task
+        this.taskList.addToTaskList(newTask);
+
+        Ui.printMsgWithObject("Got it. Task has been Added:", newTask,
+                "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+        this.storage.appendAdd(newTask);
+    }
+
+    /**
+     * Returns a new task from a parsed command.
+     * Its description is pooled with those of the tasks read from storage, so repeated descriptions are shared.
+     *
+     * @param command Parsed todo, deadline or event command.
+     * @return The new task.
      * @throws AladdinException if task type is invalid.
      */
-    private void addTask(String[] formattedTask) throws AladdinException {
-        String taskType = formattedTask[0];
+    private Task createTask(Command command) throws AladdinException {
+        Command.Type taskType = command.getType();
         Task newTask = null;
+        DescriptionPool descriptionPool = this.storage.getDescriptionPool();
 
-        if (taskType.equals("TODO")) {
+        if (taskType == Command.Type.TODO) {
             // Add todo task to taskList
-            newTask = new Todo(formattedTask[1]);
+            newTask = new Todo(descriptionPool.intern(command.getDescription()));
 
-        } else if (taskType.equals("DEADLINE")) {
+        } else if (taskType == Command.Type.DEADLINE) {
             // Add deadline task to taskList
-            newTask = new Deadline(formattedTask[1],
-                    LocalDateTime.parse(formattedTask[2], DATE_TIME_STORE));
+            newTask = new Deadline(descriptionPool.intern(command.getDescription()), command.getFrom());
 
-        } else if (taskType.equals("EVENT")) {
+        } else if (taskType == Command.Type.EVENT) {
             // Add Event task to taskList
-            newTask = new Event(formattedTask[1],
-                    LocalDateTime.parse(formattedTask[2], DATE_TIME_STORE),
-                    LocalDateTime.parse(formattedTask[3], DATE_TIME_STORE));
+            newTask = new Event(descriptionPool.intern(command.getDescription()),
+                    command.getFrom(), command.getTo());
 
         } else {
             throw new AladdinException("Invalid task type: " + taskType);
         }
+        return newTask;
+    }
 
-        // Add the new task
-        this.taskList.addToTaskList(newTask);
+    /**
+     * Adds the tasks in a block of todo, deadline and event commands, ending with a line of "end".
+     * The tasks are only added if every command is valid, and are saved in a single write.
+     *
+     * @throws AladdinException If any command is invalid, or the tasks cannot be saved.
+     */
+    private void addTasksInBulk() throws AladdinException {
+        List<Task> newTasks = new ArrayList<>();
+        StringBuilder errors = new StringBuilder();
+        int lineNumber = 0;
+
+        String line;
+        while (((line = Ui.getUserInput()) != null) && !line.equalsIgnoreCase("end")) {
+            lineNumber++;
+            try {
+                Command command = Parser.parseUserCommand(line);
+                Command.Type taskType = command.getType();
+                if ((taskType != Command.Type.TODO) && (taskType != Command.Type.DEADLINE)
+                        && (taskType != Command.Type.EVENT)) {
+                    throw new AladdinException("Only todo, deadline and event tasks can be added in bulk.");
+                }
+                newTasks.add(this.createTask(command));
 
-        Ui.printMsgWithObject("Got it. Task has been Added:", newTask,
-                "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+            } catch (AladdinException e) {
+                errors.append(System.lineSeparator()).append("Line ").append(lineNumber).append(": ")
+                        .append(e.getMessage());
+            }
+        }
+
+        if (errors.length() > 0) {
+            throw new AladdinException("No tasks have been added, as some lines are invalid:" + errors);
+        }
+
+        // Locked only once every line is read, so a user typing slowly does not hold up other sessions
+        this.changeLock.lock();
+        try {
+            int[] positions = new int[newTasks.size()];
+            for (int i = 0; i < positions.length; i++) {
+                this.taskList.addToTaskList(newTasks.get(i));
+                positions[i] = this.taskList.getSize();
+            }
+            Ui.printMsgWithObject("Got it. " + newTasks.size() + " task(s) have been Added:",
+                    Aladdin.formatNumberedTasks(this.getTaskNumbers(positions), newTasks.toArray(new Task[0])),
+                    "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+            if (!newTasks.isEmpty()) {
+                this.storage.appendAdds(newTasks);
+            }
+
+        } finally {
+            this.changeLock.unlock();
+        }
     }
 
     /**
      * Changes task status.
      * Either mark or unmark the specified task as done or not done.
      *
-     * @param taskNumber Specified task to mark or unmark.
+     * @param taskNumber Task number of the task to mark or unmark.
      * @param isDone Specifies if task is done or not.
+     * @throws AladdinException If the task does not exist, or the change cannot be saved.
      */
-    private void markTaskStatus(int taskNumber, boolean isDone) {
-        Task modifiedTask = this.taskList.changeTaskStatus(taskNumber, isDone);
-
-        if (modifiedTask != null) {
-            String msg;
-            if (isDone) {
-                msg = "Great Job! I have marked the task as done:";
-            } else {
-                msg = "Ok, I have marked the task as not done yet:";
-            }
-            Ui.printMsgWithObject(msg, modifiedTask);
+    private void markTaskStatus(int taskNumber, boolean isDone) throws AladdinException {
+        int index = this.taskList.indexOfTaskNumber(taskNumber);
+        Task modifiedTask = (index >= 0) ? this.taskList.changeTaskStatus(index + 1, isDone) : null;
+        if (modifiedTask == null) {
+            throw new AladdinException("Task " + taskNumber + " does not exist");
+        }
 
+        String msg;
+        if (isDone) {
+            msg = "Great Job! I have marked the task as done:";
         } else {
-            Ui.printMsg("Task " + taskNumber + " does not exist");
+            msg = "Ok, I have marked the task as not done yet:";
         }
+        Ui.printMsgWithObject(msg, modifiedTask);
+        this.storage.appendStatus(index + 1, isDone);
     }
 
     /**
-     * Deletes a task from list based on the task number.
+     * Changes the status of the tasks in a parsed mark or unmark command, as one operation.
      *
-     * @param taskNumber Specified task to delete (starts from 1).
+     * @param command Parsed command with task numbers and ranges of task numbers.
+     * @param isDone Specifies if the tasks are done or not.
+     * @throws AladdinException If a task does not exist, or the change cannot be saved.
      */
-    private void deleteTask(int taskNumber) {
-        Task deletedTask = this.taskList.deleteTask(taskNumber);
+    private void markTaskStatuses(Command command, boolean isDone) throws AladdinException {
+        if (command.isSingleTaskNumber()) {
+            this.markTaskStatus(command.getTaskNumberRanges()[0], isDone);
+            return;
+        }
 
-        if (deletedTask != null) {
-            Ui.printMsgWithObject("Noted. I have removed this task:", deletedTask,
-                    "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+        int[] positions = this.toPositions(command.getTaskNumberRanges());
+        Task[] modifiedTasks = this.taskList.changeTaskStatuses(positions, isDone);
 
+        String msg;
+        if (isDone) {
+            msg = "Great Job! I have marked these " + modifiedTasks.length + " tasks as done:";
         } else {
-            Ui.printMsg("Task " + taskNumber + " does not exist");
+            msg = "Ok, I have marked these " + modifiedTasks.length + " tasks as not done yet:";
+        }
+        Ui.printMsgWithObject(msg, Aladdin.formatNumberedTasks(this.getTaskNumbers(positions), modifiedTasks));
+        this.storage.appendStatuses(positions, isDone);
+    }
+
+    /**
+     * Deletes the tasks in a parsed delete command, as one operation.
+     *
+     * @param command Parsed command with task numbers and ranges of task numbers.
+     * @throws AladdinException If a task does not exist, or the change cannot be saved.
+     */
+    private void deleteTasks(Command command) throws AladdinException {
+        if (command.isSingleTaskNumber()) {
+            this.deleteTask(command.getTaskNumberRanges()[0]);
+            return;
+        }
+
+        int[] positions = this.toPositions(command.getTaskNumberRanges());
+        // Numbered before the tasks are deleted, while their positions still lead to them
+        int[] taskNumbers = this.getTaskNumbers(positions);
+        Task[] deletedTasks = this.taskList.deleteTasks(positions);
+
+        // Tasks were deleted from the highest position down
+        int[] deletedPositions = new int[positions.length];
+        Task[] tasksInListOrder = new Task[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            deletedPositions[i] = positions[positions.length - 1 - i];
+            tasksInListOrder[i] = deletedTasks[positions.length - 1 - i];
+        }
+        Ui.printMsgWithObject("Noted. I have removed these " + deletedTasks.length + " tasks:",
+                Aladdin.formatNumberedTasks(taskNumbers, tasksInListOrder),
+                "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+        this.storage.appendDeletes(deletedPositions);
+    }
+
+    /**
+     * Returns the positions in the list of the tasks in ranges of task numbers, in ascending order without duplicates.
+     * A range covers every task whose task number is in it, so it skips the numbers of deleted tasks,
+     * but the first and last task number of each range must belong to tasks in the list.
+     *
+     * @param taskNumberRanges First and last task number of each range of task numbers, one after another.
+     * @return Positions of the tasks (starts from 1).
+     * @throws AladdinException If a range starts or ends at a task not in the list.
+     */
+    private int[] toPositions(int[] taskNumberRanges) throws AladdinException {
+        BitSet positions = new BitSet();
+
+        for (int i = 0; i < taskNumberRanges.length; i += 2) {
+            // Task numbers increase along the list, so the tasks of a range are the ones between its ends
+            int[] ends = new int[2];
+            for (int j = 0; j < 2; j++) {
+                int taskNumber = taskNumberRanges[i + j];
+                ends[j] = this.taskList.indexOfTaskNumber(taskNumber);
+                if (ends[j] < 0) {
+                    throw new AladdinException("Task " + taskNumber + " does not exist");
+                }
+            }
+            positions.set(ends[0] + 1, ends[1] + 2);
         }
+        return positions.stream().toArray();
+    }
+
+    /**
+     * Returns a string representation of tasks, each numbered with its task number.
+     */
+    private static String formatNumberedTasks(int[] taskNumbers, Task[] tasks) {
+        StringBuilder numberedTasks = new StringBuilder();
+        for (int i = 0; i < tasks.length; i++) {
+            if (i > 0) {
+                numberedTasks.append(System.lineSeparator());
+            }
+            numberedTasks.append(taskNumbers[i]).append(". ").append(tasks[i]);
+        }
+        return numberedTasks.toString();
+    }
+
+    /**
+     * Returns the task numbers of the tasks at positions in the list.
+     *
+     * @param positions Positions of the tasks (starts from 1).
+     * @return Task number of each task.
+     */
+    private int[] getTaskNumbers(int[] positions) {
+        int[] taskNumbers = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            taskNumbers[i] = this.taskList.getTaskNumber(positions[i] - 1);
+        }
+        return taskNumbers;
+    }
+
+    /**
+     * Deletes a task from list based on the task number.
+     *
+     * @param taskNumber Task number of the task to delete.
+     * @throws AladdinException If the task does not exist, or the change cannot be saved.
+     */
+    private void deleteTask(int taskNumber) throws AladdinException {
+        int index = this.taskList.indexOfTaskNumber(taskNumber);
+        Task deletedTask = (index >= 0) ? this.taskList.deleteTask(index + 1) : null;
+        if (deletedTask == null) {
+            throw new AladdinException("Task " + taskNumber + " does not exist");
+        }
+
+        Ui.printMsgWithObject("Noted. I have removed this task:", deletedTask,
+                "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+        this.storage.appendDelete(index + 1);
     }
 
     /**
      * Prints the chatbot's taskList.
      */
     private void printTaskList() {
-        Ui.printMsgWithObject("Here are the tasks in your list:", taskList);
+        TaskListView tasks = this.getTasksToRead();
+        Ui.printMsgWithTasks("Here are the tasks in your list:", tasks, 0, tasks.getSize());
+    }
+
+    /**
+     * Prints the first page of the chatbot's taskList, and starts listing in pages.
+     *
+     * @param pageSize Number of tasks in each page.
+     */
+    private void printFirstTaskListPage(int pageSize) {
+        this.listPageSize = pageSize;
+        this.listNextIndex = 0;
+        this.printNextTaskListPage();
+    }
+
+    /**
+     * Prints the next page of the chatbot's taskList.
+     */
+    private void printNextTaskListPage() {
+        if (this.listPageSize == 0) {
+            Ui.printMsg("Please specify the number of tasks in each page first, with list {number of tasks}.");
+            return;
+        }
+
+        TaskListView tasks = this.getTasksToRead();
+        int size = tasks.getSize();
+        if (this.listNextIndex >= size) {
+            Ui.printMsg("There are no more tasks in your list.");
+            return;
+        }
+
+        int fromIndex = this.listNextIndex;
+        int toIndex = (int) Math.min(size, (long) fromIndex + this.listPageSize);
+        Ui.printMsgWithTasks("Here are tasks " + (fromIndex + 1) + " to " + toIndex + " of " + size
+                + " in your list:", tasks, fromIndex, toIndex);
+        this.listNextIndex = toIndex;
+    }
+
+    /**
+     * Returns the tasks to list, as a snapshot if other sessions can change the task list while it is listed.
+     */
+    private TaskListView getTasksToRead() {
+        return (this.taskList instanceof ConcurrentTaskList)
+                ? ((ConcurrentTaskList) this.taskList).snapshot()
+                : this.taskList;
     }
 
     /**
@@ -164,20 +635,236 @@ public class Aladdin {
     }
 
     /**
-     * Main method to initialise and run Aladdin chatbot.
+     * Finds Deadline tasks due strictly before a date/time.
      *
-     * @param args Supplied command-line arguments (if any).
+     * @param before Specified date/time.
      */
-    public static void main(String[] args) {
+    private void findDeadlinesBefore(LocalDateTime before) {
+        String matchingTasks = this.taskList.searchDeadlinesBefore(before);
 
-        // Instantiate Aladdin chatbot
-        String name = "Aladdin";
-        Aladdin chatbot = new Aladdin(name);
-        chatbot.loadTasksFromFile();
+        Ui.printMsgWithObject("Here are the deadlines due before "
+                + before.format(DATE_TIME_DISPLAY) + ":", matchingTasks);
+    }
 
-        // Print welcome message
-        Ui.printWelcome(name);
+    /**
+     * Finds Deadline tasks due from one date/time to another, both inclusive.
+     *
+     * @param from Earliest date/time.
+     * @param to Latest date/time.
+     */
+    private void findDeadlinesBetween(LocalDateTime from, LocalDateTime to) {
+        String matchingTasks = this.taskList.searchDeadlines(from, to);
+
+        Ui.printMsgWithObject("Here are the deadlines due between " + from.format(DATE_TIME_DISPLAY)
+                + " and " + to.format(DATE_TIME_DISPLAY) + ":", matchingTasks);
+    }
+
+    /**
+     * Finds Event tasks happening at any time from one date/time to another, both inclusive.
+     *
+     * @param from Start date/time of the period.
+     * @param to End date/time of the period.
+     */
+    private void findEventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        String matchingTasks = this.taskList.searchEvents(from, to);
+
+        Ui.printMsgWithObject("Here are the events from " + from.format(DATE_TIME_DISPLAY)
+                + " to " + to.format(DATE_TIME_DISPLAY) + ":", matchingTasks);
+    }
+
+    /**
+     * Parses and carries out a user command.
+     * Commands that change the task list take turns with those of other sessions,
+     * so the storage file records the changes in the order they were made.
+     *
+     * @param userInput The user's input.
+     * @throws AladdinException If user command is invalid.
+     */
+    private void runCommand(String userInput) throws AladdinException {
+        Command command = Parser.parseUserCommand(userInput);
+
+        // A ConcurrentTaskList is read without locking, and bulk commands lock only while adding their tasks
+        if ((command.getType() == Command.Type.BULK)
+                || ((this.taskList instanceof ConcurrentTaskList) && Aladdin.isReadOnly(command))) {
+            this.carryOutCommand(command);
+            return;
+        }
+
+        // Written out only once unlocked, so a user who stops reading does not hold up other sessions
+        this.changeLock.lock();
+        Ui.setResponseHeld(true);
+        try {
+            this.carryOutCommand(command);
+
+        } finally {
+            Ui.setResponseHeld(false);
+            this.changeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if a command only reads the task list.
+     */
+    private static boolean isReadOnly(Command command) {
+        switch (command.getType()) {
+        case LIST:
+        case FIND:
+        case BEFORE:
+        case BETWEEN:
+        case OVERLAP:
+            return true;
+
+        default: // Command.Type.MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE or BULK
+            return false;
+        }
+    }
+
+    /**
+     * Carries out a parsed user command.
+     *
+     * @param command The parsed command.
+     * @throws AladdinException If the command cannot be carried out.
+     */
+    private void carryOutCommand(Command command) throws AladdinException {
+        switch (command.getType()) {
+        case LIST:
+            // Print taskList, in full or a page at a time
+            if (command.isNextPage()) {
+                this.printNextTaskListPage();
+            } else if (command.getPageSize() > 0) {
+                this.printFirstTaskListPage(command.getPageSize());
+            } else {
+                this.printTaskList();
+            }
+            break;
+
+        case MARK:
+            // Call method to mark tasks
+            this.markTaskStatuses(command, true);
+            break;
+
+        case UNMARK:
+            // Call method to unmark tasks
+            this.markTaskStatuses(command, false);
+            break;
+
+        case TODO:
+        case DEADLINE:
+        case EVENT:
+            // Add task to taskList
+            this.addTask(command);
+            break;
+
+        case DELETE:
+            // Call method to delete tasks
+            this.deleteTasks(command);
+            break;
+
+        case BULK:
+            // Call method to add a block of tasks
+            this.addTasksInBulk();
+            break;
+
+        case FIND:
+            // Call method to find tasks with keyword
+            this.findDescription(command.getDescription());
+            break;
+
+        case BEFORE:
+            // Call method to find deadlines due before a date/time
+            this.findDeadlinesBefore(command.getFrom());
+            break;
+
+        case BETWEEN:
+            // Call method to find deadlines due between two date/times
+            this.findDeadlinesBetween(command.getFrom(), command.getTo());
+            break;
+
+        default: // Command.Type.OVERLAP
+            // Call method to find events overlapping a period
+            this.findEventsOverlapping(command.getFrom(), command.getTo());
+        }
+    }
 
+    /**
+     * Runs the commands in a command file without printing their responses, then prints a summary.
+     * Changes are saved when the file ends, and after every checkpointInterval commands if it is positive.
+     *
+     * @param commandFile Path of the command file, one command per line as typed by the user.
+     * @param checkpointInterval Number of commands between saves, or 0 to save only at the end.
+     */
+    private void runBatch(Path commandFile, int checkpointInterval) {
+        this.storage.setDurability(MutationLog.Durability.ON_EXIT, MutationLog.DEFAULT_INTERVAL_MILLIS);
+        int commandCount = 0;
+        int failedCount = 0;
+        StringBuilder failures = new StringBuilder();
+        long startNanos = System.nanoTime();
+
+        // Malformed bytes are replaced, rather than ending the file early
+        try (Reader reader = new InputStreamReader(Files.newInputStream(commandFile), StandardCharsets.UTF_8)) {
+            // Bulk commands read their tasks from the command file too
+            Ui.setInput(reader);
+            Ui.setOutput(Writer.nullWriter());
+            // Responses are not read one at a time, so are written out only as the buffer fills
+            Ui.setFlushedEachResponse(false);
+
+            String userInput;
+            while (((userInput = Ui.getUserInput()) != null) && !userInput.equalsIgnoreCase("bye")) {
+                commandCount++;
+                try {
+                    this.runCommand(userInput);
+
+                } catch (AladdinException e) {
+                    failedCount++;
+                    if (failedCount <= MAX_BATCH_FAILURES_SHOWN) {
+                        failures.append(System.lineSeparator()).append("Command ").append(commandCount)
+                                .append(": ").append(e.getMessage());
+                    }
+                }
+
+                if ((checkpointInterval > 0) && (commandCount % checkpointInterval == 0)) {
+                    try {
+                        this.storage.flush();
+
+                    } catch (AladdinException e) {
+                        failures.append(System.lineSeparator()).append("Checkpoint after command ")
+                                .append(commandCount).append(": ").append(e.getMessage());
+                    }
+                }
+            }
+
+        } catch (IOException e) {
+            failures.append(System.lineSeparator()).append("Could not read command file: ").append(e.getMessage());
+
+        } finally {
+            Ui.setInput(null);
+            Ui.setOutput(null);
+            Ui.setFlushedEachResponse(true);
+        }
+
+        try {
+            this.storage.close();
+
+        } catch (AladdinException e) {
+            failures.append(System.lineSeparator()).append("Saving changes: ").append(e.getMessage());
+        }
+
+        if (failedCount > MAX_BATCH_FAILURES_SHOWN) {
+            failures.append(System.lineSeparator()).append("... and ").append(failedCount - MAX_BATCH_FAILURES_SHOWN)
+                    .append(" more.");
+        }
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        Ui.printMsg("Ran " + commandCount + " command(s) from " + commandFile + " in " + elapsedMillis + " ms: "
+                + (commandCount - failedCount) + " succeeded, " + failedCount + " failed." + failures
+                + System.lineSeparator() + "Now you have " + this.taskList.getSize() + " task(s) in the list.");
+    }
+
+    /**
+     * Reads and carries out the user's commands until the user says bye or input ends.
+     *
+     * @return True if the user said bye, false if input ended.
+     */
+    boolean converse() {
         while (true) {
             // Get user input
             String userInput = Ui.getUserInput();
@@ -185,68 +872,119 @@ public class Aladdin {
             if (userInput == null) {
                 // Return if there is no user input
                 // Required for automated text UI test
-                return;
+                return false;
 
             } else if (userInput.equalsIgnoreCase("bye")) {
-                // Break when user enters command "bye"
-                break;
+                // Return when user enters command "bye"
+                return true;
             }
 
             try {
-                String[] formattedCommand = Parser.parseUserCommand(userInput);
-
-                switch (formattedCommand[0]) {
-                case "LIST":
-                    // Print taskList
-                    chatbot.printTaskList();
-                    break;
-
-                case "MARK":
-                    // Call method to mark task
-                    chatbot.markTaskStatus(Integer.parseInt(formattedCommand[1]), true);
-
-                    // Save updated taskList to file
-                    chatbot.saveTasksToFile();
-                    break;
-
-                case "UNMARK":
-                    // Call method to unmark task
-                    chatbot.markTaskStatus(Integer.parseInt(formattedCommand[1]), false);
-
-                    // Save updated taskList to file
-                    chatbot.saveTasksToFile();
-                    break;
-
-                case "TODO":
-                case "DEADLINE":
-                case "EVENT":
-                    // Add task to taskList
-                    chatbot.addTask(formattedCommand);
-
-                    // Save updated taskList to file
-                    chatbot.saveTasksToFile();
-                    break;
-
-                case "DELETE":
-                    // Call method to delete task
-                    chatbot.deleteTask(Integer.parseInt(formattedCommand[1]));
-
-                    // Save updated taskList to file
-                    chatbot.saveTasksToFile();
-                    break;
-
-                case "FIND":
-                    // Call method to find tasks with keyword
-                    chatbot.findDescription(formattedCommand[1]);
-                }
+                this.runCommand(userInput);
 
             } catch (AladdinException e) {
                 Ui.printException(e);
             }
         }
+    }
+
+    /**
+     * Serves users over the network until the process is stopped, when the tasks are saved.
+     *
+     * @param port Port to listen on, or 0 for any free port.
+     */
+    private void serve(int port) {
+        Server server;
+        try {
+            server = new Server(this, port);
+
+        } catch (AladdinException e) {
+            Ui.printException(e);
+            this.closeStorage();
+            return;
+        }
+
+        // Stopped with Ctrl-C or a kill signal, so storage is closed by a shutdown hook
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            this.changeLock.lock();
+            try {
+                this.closeStorage();
 
-        // Print Exit message
-        Ui.printExit();
+            } finally {
+                this.changeLock.unlock();
+            }
+            Ui.flush();
+        }));
+
+        Ui.printMsg(this.name + " is serving on localhost port " + server.getPort() + ".");
+        Ui.flush();
+        server.serve();
+    }
+
+    /**
+     * Main method to initialise and run Aladdin chatbot.
+     * With arguments --batch {command file} [--checkpoint {number of commands}], runs the commands in the file
+     * instead of reading them from standard input.
+     * With arguments --server {port}, serves users connecting to the port of this machine instead.
+     *
+     * @param args Supplied command-line arguments (if any).
+     */
+    public static void main(String[] args) {
+        try {
+            Aladdin.run(args);
+
+        } finally {
+            // Written out even if a command fails unexpectedly, so the responses before it are not lost
+            Ui.flush();
+        }
+    }
+
+    /**
+     * Runs Aladdin chatbot in the mode selected by the command-line arguments.
+     *
+     * @param args Supplied command-line arguments (if any).
+     */
+    private static void run(String[] args) {
+        Path commandFile = null;
+        int checkpointInterval = 0;
+        int port = -1;
+        try {
+            if ((args.length > 0) && args[0].equals(BATCH_OPTION)) {
+                commandFile = Aladdin.getBatchCommandFile(args);
+                checkpointInterval = Aladdin.getCheckpointInterval(args);
+            } else if ((args.length > 0) && args[0].equals(SERVER_OPTION)) {
+                port = Aladdin.getServerPort(args);
+            }
+
+        } catch (AladdinException e) {
+            Ui.printException(e);
+            return;
+        }
+
+        // Instantiate Aladdin chatbot
+        String name = "Aladdin";
+        Aladdin chatbot = new Aladdin(name, port >= 0);
+        chatbot.loadTasksFromFile();
+
+        if (commandFile != null) {
+            chatbot.runBatch(commandFile, checkpointInterval);
+            return;
+        } else if (port >= 0) {
+            chatbot.serve(port);
+            return;
+        }
+
+        // Print welcome message
+        Ui.printWelcome(name);
+
+        boolean isBye = chatbot.converse();
+        chatbot.closeStorage();
+
+        if (isBye) {
+            // Print Exit message
+            Ui.printExit();
+        }
     }
 
 }
@@ -0,0 +1,304 @@
+package aladdin;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Represents a storage file in a compact, versioned binary format.
+ * Each task is stored as a type tag, a done flag, a length-prefixed UTF-8 description,
+ * and its date/times as minutes since the epoch, so nothing is formatted or parsed as text.
+ * From version 2, each record is followed by the CRC32C of its bytes.
+ * From version 3, deleted tasks left out of the file are replaced by a skip record, whose type tag is '-'
+ * and whose description length is the number of task numbers they took up, so every task keeps its task number.
+ */
+public class BinaryTaskFile {
+    /** Bytes at the start of every binary storage file */
+    private static final byte[] MAGIC = {'A', 'L', 'D', 'N'};
+    /** Version of the binary format written */
+    private static final byte VERSION = 3;
+    /** Version of the binary format written before deleted tasks had skip records */
+    private static final byte VERSION_WITHOUT_SKIP = 2;
+    /** Version of the binary format written before records had checksums */
+    private static final byte VERSION_WITHOUT_CHECKSUM = 1;
+    /** Size of the file header, made up of the magic bytes and version */
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+    /** Size of the type tag, done flag and description length of a record */
+    private static final int RECORD_HEADER_SIZE = 1 + 1 + Integer.BYTES;
+    /** Type tag of a skip record, which takes up the task numbers of deleted tasks */
+    private static final byte SKIP_TYPE = '-';
+
+    /** Size of the buffer used when writing */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Returns the number of minutes since the epoch of a date/time.
+     *
+     * @param dateTime Date/time to convert.
+     * @return Minutes since 1970-01-01T00:00.
+     */
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Returns the date/time of a number of minutes since the epoch.
+     *
+     * @param epochMinute Minutes since 1970-01-01T00:00.
+     * @return The date/time.
+     */
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes every task in a TaskList to a binary storage file.
+     *
+     * @param path Path of the storage file.
+     * @param taskList The list of tasks to write.
+     * @throws IOException If the storage file cannot be written.
+     */
+    public static void write(Path path, TaskList taskList) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER_SIZE))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            ByteBuffer record = ByteBuffer.allocate(256);
+            CRC32C crc = new CRC32C();
+            int nextTaskNumber = 1;
+            for (int i = 0; i < taskList.getSize(); i++) {
+                int taskNumber = taskList.getTaskNumber(i);
+                if (taskNumber > nextTaskNumber) {
+                    BinaryTaskFile.writeRecord(out,
+                            BinaryTaskFile.encodeSkip(record, taskNumber - nextTaskNumber), crc);
+                }
+                record = BinaryTaskFile.encodeTask(record, taskList.getTask(i));
+                BinaryTaskFile.writeRecord(out, record, crc);
+                nextTaskNumber = taskNumber + 1;
+            }
+            if (taskList.getNextTaskNumber() > nextTaskNumber) {
+                BinaryTaskFile.writeRecord(out,
+                        BinaryTaskFile.encodeSkip(record, taskList.getNextTaskNumber() - nextTaskNumber), crc);
+            }
+        }
+    }
+
+    /**
+     * Writes an encoded record, followed by its checksum.
+     */
+    private static void writeRecord(DataOutputStream out, ByteBuffer record, CRC32C crc) throws IOException {
+        out.write(record.array(), 0, record.position());
+
+        crc.reset();
+        crc.update(record.array(), 0, record.position());
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Encodes a skip record into a buffer.
+     *
+     * @return Buffer holding the encoded record, from index 0 to its position.
+     */
+    private static ByteBuffer encodeSkip(ByteBuffer record, int count) {
+        record.clear();
+        record.put(SKIP_TYPE);
+        record.put((byte) 0);
+        record.putInt(count);
+        return record;
+    }
+
+    /**
+     * Encodes a task into a buffer, growing it if needed.
+     *
+     * @return Buffer holding the encoded task, from index 0 to its position.
+     */
+    private static ByteBuffer encodeTask(ByteBuffer record, Task task) {
+        byte[] description = task.description.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_HEADER_SIZE + description.length + 2 * Long.BYTES;
+        ByteBuffer buffer = (recordSize > record.capacity()) ? ByteBuffer.allocate(recordSize * 2) : record;
+        buffer.clear();
+
+        if (task instanceof Deadline) {
+            buffer.put((byte) 'D');
+        } else if (task instanceof Event) {
+            buffer.put((byte) 'E');
+        } else {
+            buffer.put((byte) 'T');
+        }
+        buffer.put((byte) (task.isDone ? 1 : 0));
+        buffer.putInt(description.length);
+        buffer.put(description);
+
+        if (task instanceof Deadline) {
+            buffer.putLong(BinaryTaskFile.toEpochMinute(((Deadline) task).by));
+
+        } else if (task instanceof Event) {
+            buffer.putLong(BinaryTaskFile.toEpochMinute(((Event) task).from));
+            buffer.putLong(BinaryTaskFile.toEpochMinute(((Event) task).to));
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads every task in a binary storage file into a TaskList.
+     * Reading stops at the first corrupted record, so the tasks before it are still loaded.
+     *
+     * @param path Path of the storage file.
+     * @param taskList The list of tasks to populate.
+     * @param descriptionPool Pool the descriptions read are shared through.
+     * @return Number of bytes skipped from the first corrupted record to the end of the file.
+     * @throws IOException If the storage file cannot be read, or is not in a supported binary format.
+     */
+    public static long read(Path path, TaskList taskList, DescriptionPool descriptionPool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            TaskFileReader.readWindow(channel, 0, header);
+            boolean hasChecksums = BinaryTaskFile.checkHeader(header);
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(fileSize, TaskFileReader.MAX_WINDOW_SIZE));
+            long position = HEADER_SIZE;
+            while (position < fileSize) {
+                TaskFileReader.readWindow(channel, position, buffer);
+                int windowSize = buffer.limit();
+                boolean isLastWindow = (position + windowSize >= fileSize);
+
+                RecordReader reader = new RecordReader(buffer, hasChecksums, descriptionPool);
+                int end = reader.readRecords(taskList);
+
+                if (reader.isCorrupted || ((end < windowSize) && (isLastWindow || (end == 0)))) {
+                    // Corrupted or incomplete record
+                    return fileSize - (position + end);
+                }
+                position += end;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks the header of a binary storage file.
+     *
+     * @return Whether the records in the file are followed by checksums.
+     */
+    private static boolean checkHeader(ByteBuffer header) throws IOException {
+        if (header.limit() < HEADER_SIZE) {
+            throw new IOException("Not a binary tasks file");
+        }
+        for (byte magicByte : MAGIC) {
+            if (header.get() != magicByte) {
+                throw new IOException("Not a binary tasks file");
+            }
+        }
+        byte version = header.get();
+        if ((version != VERSION) && (version != VERSION_WITHOUT_SKIP) && (version != VERSION_WITHOUT_CHECKSUM)) {
+            throw new IOException("Unsupported binary tasks file version: " + version);
+        }
+        return version != VERSION_WITHOUT_CHECKSUM;
+    }
+
+    /**
+     * Represents a reader of the records in a window of a binary storage file.
+     */
+    private static class RecordReader {
+        private final ByteBuffer buffer;
+        private final boolean hasChecksums;
+        private final DescriptionPool descriptionPool;
+        private final CRC32C crc = new CRC32C();
+        private byte[] scratch = new byte[256];
+        /** Whether reading stopped at a corrupted record */
+        private boolean isCorrupted;
+
+        private RecordReader(ByteBuffer buffer, boolean hasChecksums, DescriptionPool descriptionPool) {
+            this.buffer = buffer;
+            this.hasChecksums = hasChecksums;
+            this.descriptionPool = descriptionPool;
+        }
+
+        /**
+         * Reads each complete record in the buffer into a TaskList, up to the first corrupted record.
+         *
+         * @return Index just after the last record read.
+         */
+        private int readRecords(TaskList taskList) {
+            int position = 0;
+            int limit = this.buffer.limit();
+            int checksumSize = this.hasChecksums ? Integer.BYTES : 0;
+
+            while (position + RECORD_HEADER_SIZE <= limit) {
+                byte taskType = this.buffer.get(position);
+                int descriptionLength = this.buffer.getInt(position + 2);
+                int timeCount = (taskType == 'D') ? 1 : (taskType == 'E') ? 2 : 0;
+                boolean isSkip = (taskType == SKIP_TYPE);
+                if ((descriptionLength < 0) || ((timeCount == 0) && (taskType != 'T') && !isSkip)) {
+                    this.isCorrupted = true;
+                    break;
+                }
+
+                // The description length of a skip record is its count, as it has no description
+                long dataSize = isSkip
+                        ? RECORD_HEADER_SIZE
+                        : (long) RECORD_HEADER_SIZE + descriptionLength + (long) timeCount * Long.BYTES;
+                if (position + dataSize + checksumSize > limit) {
+                    // Record continues in the next window
+                    break;
+                }
+
+                if (this.hasChecksums && !this.hasValidChecksum(position, (int) dataSize)) {
+                    this.isCorrupted = true;
+                    break;
+                }
+
+                if (isSkip) {
+                    taskList.skipTaskNumbers(descriptionLength);
+                } else {
+                    taskList.addToTaskList(this.readTask(position, taskType, descriptionLength));
+                }
+                position += (int) dataSize + checksumSize;
+            }
+            return position;
+        }
+
+        private boolean hasValidChecksum(int position, int dataSize) {
+            this.crc.reset();
+            this.crc.update(this.buffer.duplicate().limit(position + dataSize).position(position));
+            return (int) this.crc.getValue() == this.buffer.getInt(position + dataSize);
+        }
+
+        private Task readTask(int position, byte taskType, int descriptionLength) {
+            boolean isDone = this.buffer.get(position + 1) != 0;
+            int descriptionStart = position + RECORD_HEADER_SIZE;
+            if (descriptionLength > this.scratch.length) {
+                this.scratch = new byte[Math.max(descriptionLength, this.scratch.length * 2)];
+            }
+            this.buffer.get(descriptionStart, this.scratch, 0, descriptionLength);
+            String description = this.descriptionPool.intern(this.scratch, 0, descriptionLength);
+            int timeStart = descriptionStart + descriptionLength;
+
+            Task newTask;
+            if (taskType == 'D') {
+                newTask = new Deadline(description, BinaryTaskFile.fromEpochMinute(this.buffer.getLong(timeStart)));
+
+            } else if (taskType == 'E') {
+                newTask = new Event(description, BinaryTaskFile.fromEpochMinute(this.buffer.getLong(timeStart)),
+                        BinaryTaskFile.fromEpochMinute(this.buffer.getLong(timeStart + Long.BYTES)));
+
+            } else {
+                newTask = new Todo(description);
+            }
+            newTask.setDone(isDone);
+            return newTask;
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a user command parsed by {@link Parser}, holding its task numbers and date/times as values,
+ * so they are not parsed again when the command is carried out.
+ */
+public class Command {
+    /**
+     * Enumeration for Commands
+     */
+    public enum Type { LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND, BEFORE, BETWEEN, OVERLAP, BULK }
+
+    /** Type of command */
+    private final Type type;
+    /** Description of the task to add, or keyword to find */
+    private String description;
+    /** Deadline 'by', Event 'from', Before date/time or start of a date/time range */
+    private LocalDateTime from;
+    /** Event 'to' or end of a date/time range */
+    private LocalDateTime to;
+    /** First and last task number (starts from 1) of each range of task numbers, one after another */
+    private int[] taskNumberRanges;
+    /** Whether the task numbers are a single task number, and not a range or list of them */
+    private boolean isSingleTaskNumber;
+    /** Number of tasks in each page to list, or 0 to list every task */
+    private int pageSize;
+    /** Whether to list the next page of tasks */
+    private boolean isNextPage;
+
+    private Command(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns a command to list every task.
+     *
+     * @return The list command.
+     */
+    public static Command list() {
+        return new Command(Type.LIST);
+    }
+
+    /**
+     * Returns a command to list the first page of tasks.
+     *
+     * @param pageSize Number of tasks in each page.
+     * @return The list command.
+     */
+    public static Command listPage(int pageSize) {
+        Command command = new Command(Type.LIST);
+        command.pageSize = pageSize;
+        return command;
+    }
+
+    /**
+     * Returns a command to list the next page of tasks.
+     *
+     * @return The list command.
+     */
+    public static Command listNextPage() {
+        Command command = new Command(Type.LIST);
+        command.isNextPage = true;
+        return command;
+    }
+
+    /**
+     * Returns a mark, unmark or delete command.
+     *
+     * @param type Type of command.
+     * @param taskNumberRanges First and last task number of each range of task numbers, one after another.
+     * @param isSingleTaskNumber Whether the task numbers are a single task number, and not a range or list.
+     * @return The command.
+     */
+    public static Command taskNumbers(Type type, int[] taskNumberRanges, boolean isSingleTaskNumber) {
+        Command command = new Command(type);
+        command.taskNumberRanges = taskNumberRanges;
+        command.isSingleTaskNumber = isSingleTaskNumber;
+        return command;
+    }
+
+    /**
+     * Returns a command to add a todo task.
+     *
+     * @param description Description of the task.
+     * @return The todo command.
+     */
+    public static Command todo(String description) {
+        Command command = new Command(Type.TODO);
+        command.description = description;
+        return command;
+    }
+
+    /**
+     * Returns a command to add a deadline task.
+     *
+     * @param description Description of the task.
+     * @param by Date/time of the deadline.
+     * @return The deadline command.
+     */
+    public static Command deadline(String description, LocalDateTime by) {
+        Command command = new Command(Type.DEADLINE);
+        command.description = description;
+        command.from = by;
+        return command;
+    }
+
+    /**
+     * Returns a command to add an event task.
+     *
+     * @param description Description of the task.
+     * @param from Start date/time of the event.
+     * @param to End date/time of the event.
+     * @return The event command.
+     */
+    public static Command event(String description, LocalDateTime from, LocalDateTime to) {
+        Command command = new Command(Type.EVENT);
+        command.description = description;
+        command.from = from;
+        command.to = to;
+        return command;
+    }
+
+    /**
+     * Returns a command to find tasks by keyword.
+     *
+     * @param keyword Keyword to match with the tasks' descriptions.
+     * @return The find command.
+     */
+    public static Command find(String keyword) {
+        Command command = new Command(Type.FIND);
+        command.description = keyword;
+        return command;
+    }
+
+    /**
+     * Returns a command to find deadlines due before a date/time.
+     *
+     * @param before Date/time the deadlines are due before.
+     * @return The before command.
+     */
+    public static Command before(LocalDateTime before) {
+        Command command = new Command(Type.BEFORE);
+        command.from = before;
+        return command;
+    }
+
+    /**
+     * Returns a between or overlap command, with a range of date/times.
+     *
+     * @param type Type of command.
+     * @param from Start of the range.
+     * @param to End of the range.
+     * @return The command.
+     */
+    public static Command dateRange(Type type, LocalDateTime from, LocalDateTime to) {
+        Command command = new Command(type);
+        command.from = from;
+        command.to = to;
+        return command;
+    }
+
+    /**
+     * Returns a command to add a block of tasks.
+     *
+     * @return The bulk command.
+     */
+    public static Command bulk() {
+        return new Command(Type.BULK);
+    }
+
+    /**
+     * Getter for type.
+     *
+     * @return Type of command.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Getter for description.
+     *
+     * @return Description of the task to add, or keyword to find.
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Getter for from.
+     *
+     * @return Deadline 'by', Event 'from', Before date/time or start of a date/time range.
+     */
+    public LocalDateTime getFrom() {
+        return this.from;
+    }
+
+    /**
+     * Getter for to.
+     *
+     * @return Event 'to' or end of a date/time range.
+     */
+    public LocalDateTime getTo() {
+        return this.to;
+    }
+
+    /**
+     * Getter for taskNumberRanges.
+     *
+     * @return First and last task number (starts from 1) of each range of task numbers, one after another.
+     */
+    public int[] getTaskNumberRanges() {
+        return this.taskNumberRanges;
+    }
+
+    /**
+     * Returns true if the command has a single task number, and not a range or list of them.
+     *
+     * @return Whether the task numbers are a single task number.
+     */
+    public boolean isSingleTaskNumber() {
+        return this.isSingleTaskNumber;
+    }
+
+    /**
+     * Getter for pageSize.
+     *
+     * @return Number of tasks in each page to list, or 0 to list every task.
+     */
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Returns true if the command lists the next page of tasks.
+     *
+     * @return Whether to list the next page.
+     */
+    public boolean isNextPage() {
+        return this.isNextPage;
+    }
+
+}
@@ -0,0 +1,493 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Represents a list of tasks that several threads can share.
+ * Tasks are held in segments that are never changed once published: a writer copies only the segment it changes,
+ * then publishes a new snapshot of the segments. Writers take turns, while readers never lock,
+ * and each read is answered from a single snapshot, so it sees either all or none of each change.
+ * A task whose status changes is replaced by a changed copy, so a snapshot's tasks never change either.
+ * Each segment keeps its own word and time indexes, built on its first search and shared by every snapshot
+ * the segment is part of, so a change only costs the indexes of the segment it copies.
+ */
+public class ConcurrentTaskList extends TaskList {
+    /** Maximum number of tasks in a segment */
+    private static final int SEGMENT_SIZE = 512;
+    /** Number of tasks below which a segment left by a delete is merged with a neighbouring segment */
+    private static final int MIN_SEGMENT_SIZE = SEGMENT_SIZE / 4;
+
+    /** Latest published snapshot of the tasks */
+    private volatile Snapshot snapshot = new Snapshot(new Segment[0], null);
+    /** Task number given to the next task added */
+    private int nextTaskNumber = 1;
+
+    /**
+     * Represents a segment of the tasks. Its tasks are never changed once created.
+     */
+    private static class Segment {
+        /** Tasks in the segment */
+        private final Task[] tasks;
+        /** Task number of each task in the segment, which only increase from task to task */
+        private final int[] taskNumbers;
+        /** Tasks of the segment with their word and time indexes, built on first search */
+        private volatile TaskList index;
+
+        Segment(Task[] tasks, int[] taskNumbers) {
+            this(tasks, taskNumbers, null);
+        }
+
+        /**
+         * Creates a segment that shares the indexes of another, which must have tasks with the same
+         * descriptions and times in the same places.
+         */
+        Segment(Task[] tasks, int[] taskNumbers, TaskList index) {
+            this.tasks = tasks;
+            this.taskNumbers = taskNumbers;
+            this.index = index;
+        }
+
+        int getLastTaskNumber() {
+            return this.taskNumbers[this.taskNumbers.length - 1];
+        }
+
+        /**
+         * Returns the indexes of the tasks of the segment found by a search of its indexes.
+         * A segment's indexes are built as they are searched, so searches of one segment take turns.
+         *
+         * @param finder Search of a TaskList holding the tasks of the segment, in the same order.
+         * @return Indexes of the matching tasks in the segment, in ascending order.
+         */
+        int[] find(Function<TaskList, int[]> finder) {
+            TaskList index = this.index;
+            if (index == null) {
+                index = new TaskList();
+                for (Task task : this.tasks) {
+                    index.addToTaskList(task);
+                }
+                this.index = index;
+            }
+
+            synchronized (index) {
+                return finder.apply(index);
+            }
+        }
+    }
+
+    /**
+     * Represents the tasks of the list at one point in time. Its arrays are never changed once created.
+     */
+    private static class Snapshot implements TaskListView {
+        /** Segments of at most SEGMENT_SIZE tasks, none empty */
+        private final Segment[] segments;
+        /** Number of tasks in each segment and every segment before it */
+        private final int[] segmentEnds;
+        /** Cache of the lines tasks are displayed as, or null if tasks are rendered every time */
+        private final RenderCache renderCache;
+
+        Snapshot(Segment[] segments, RenderCache renderCache) {
+            this.segments = segments;
+            this.renderCache = renderCache;
+            this.segmentEnds = new int[segments.length];
+            int end = 0;
+            for (int i = 0; i < segments.length; i++) {
+                end += segments[i].tasks.length;
+                this.segmentEnds[i] = end;
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return (this.segmentEnds.length == 0) ? 0 : this.segmentEnds[this.segmentEnds.length - 1];
+        }
+
+        @Override
+        public Task getTask(int index) {
+            if ((index < 0) || (index >= this.getSize())) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.getSize());
+            }
+            int segment = this.segmentOf(index);
+            return this.segments[segment].tasks[index - this.segmentStart(segment)];
+        }
+
+        @Override
+        public String renderTask(int index) {
+            Task task = this.getTask(index);
+            return (this.renderCache != null) ? this.renderCache.render(task) : task.toString();
+        }
+
+        @Override
+        public int getTaskNumber(int index) {
+            int segment = this.segmentOf(index);
+            return this.segments[segment].taskNumbers[index - this.segmentStart(segment)];
+        }
+
+        @Override
+        public int indexOfTaskNumber(int taskNumber) {
+            if (this.segments.length == 0) {
+                return -1;
+            }
+
+            // Task numbers increase along the list, so the task can only be in the first segment ending after it
+            int low = 0;
+            int high = this.segments.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (this.segments[middle].getLastTaskNumber() < taskNumber) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int indexInSegment = Arrays.binarySearch(this.segments[low].taskNumbers, taskNumber);
+            return (indexInSegment < 0) ? -1 : this.segmentStart(low) + indexInSegment;
+        }
+
+        @Override
+        public String searchTasks(String keyword) {
+            return TaskList.formatTasks(this, this.find(index -> index.findTasks(keyword)));
+        }
+
+        @Override
+        public String searchDeadlines(LocalDateTime from, LocalDateTime to) {
+            return TaskList.formatTasks(this, this.find(index -> index.findDeadlines(from, to)));
+        }
+
+        @Override
+        public String searchDeadlinesBefore(LocalDateTime before) {
+            return TaskList.formatTasks(this, this.find(index -> index.findDeadlinesBefore(before)));
+        }
+
+        @Override
+        public String searchEvents(LocalDateTime from, LocalDateTime to) {
+            return TaskList.formatTasks(this, this.find(index -> index.findEvents(from, to)));
+        }
+
+        /**
+         * Returns the indexes of the tasks found by a search of the indexes of every segment.
+         *
+         * @param finder Search of a TaskList holding the tasks of a segment.
+         * @return Indexes of the matching tasks in ascending order.
+         */
+        int[] find(Function<TaskList, int[]> finder) {
+            int[] matchingIndexes = new int[16];
+            int matchCount = 0;
+
+            for (int segment = 0; segment < this.segments.length; segment++) {
+                int segmentStart = this.segmentStart(segment);
+                for (int indexInSegment : this.segments[segment].find(finder)) {
+                    if (matchCount == matchingIndexes.length) {
+                        matchingIndexes = Arrays.copyOf(matchingIndexes, matchCount * 2);
+                    }
+                    matchingIndexes[matchCount++] = segmentStart + indexInSegment;
+                }
+            }
+            return Arrays.copyOf(matchingIndexes, matchCount);
+        }
+
+        Snapshot withAdded(Task task, int taskNumber) {
+            int lastSegment = this.segments.length - 1;
+            if ((lastSegment >= 0) && (this.segments[lastSegment].tasks.length < SEGMENT_SIZE)) {
+                Segment oldSegment = this.segments[lastSegment];
+                Task[] tasks = Arrays.copyOf(oldSegment.tasks, oldSegment.tasks.length + 1);
+                tasks[tasks.length - 1] = task;
+                int[] taskNumbers = Arrays.copyOf(oldSegment.taskNumbers, tasks.length);
+                taskNumbers[taskNumbers.length - 1] = taskNumber;
+                return this.withSegment(lastSegment, new Segment(tasks, taskNumbers));
+            }
+
+            Segment[] segments = Arrays.copyOf(this.segments, this.segments.length + 1);
+            segments[segments.length - 1] = new Segment(new Task[] {task}, new int[] {taskNumber});
+            return new Snapshot(segments, this.renderCache);
+        }
+
+        /**
+         * Returns a snapshot with a task replaced by a copy with a different status.
+         * The copy has the same description and times, so the segment keeps its indexes.
+         */
+        Snapshot withReplaced(int index, Task task) {
+            int segmentIndex = this.segmentOf(index);
+            Segment oldSegment = this.segments[segmentIndex];
+            Task[] tasks = oldSegment.tasks.clone();
+            tasks[index - this.segmentStart(segmentIndex)] = task;
+            return this.withSegment(segmentIndex, new Segment(tasks, oldSegment.taskNumbers, oldSegment.index));
+        }
+
+        /**
+         * Returns a snapshot with a task deleted.
+         * A segment left with fewer than MIN_SEGMENT_SIZE tasks is merged with the next or previous segment
+         * if they fit in one, so deletes do not leave many small segments behind.
+         */
+        Snapshot withDeleted(int index) {
+            int segmentIndex = this.segmentOf(index);
+            Segment oldSegment = this.segments[segmentIndex];
+            int indexInSegment = index - this.segmentStart(segmentIndex);
+            Task[] tasks = new Task[oldSegment.tasks.length - 1];
+            System.arraycopy(oldSegment.tasks, 0, tasks, 0, indexInSegment);
+            System.arraycopy(oldSegment.tasks, indexInSegment + 1, tasks, indexInSegment,
+                    tasks.length - indexInSegment);
+            int[] taskNumbers = new int[tasks.length];
+            System.arraycopy(oldSegment.taskNumbers, 0, taskNumbers, 0, indexInSegment);
+            System.arraycopy(oldSegment.taskNumbers, indexInSegment + 1, taskNumbers, indexInSegment,
+                    taskNumbers.length - indexInSegment);
+            Segment segment = new Segment(tasks, taskNumbers);
+
+            if ((tasks.length > 0) && (tasks.length < MIN_SEGMENT_SIZE)) {
+                int next = segmentIndex + 1;
+                int previous = segmentIndex - 1;
+                if ((next < this.segments.length) && (tasks.length + this.segments[next].tasks.length <= SEGMENT_SIZE)) {
+                    return this.withMerged(segmentIndex, segment, this.segments[next]);
+                } else if ((previous >= 0)
+                        && (this.segments[previous].tasks.length + tasks.length <= SEGMENT_SIZE)) {
+                    return this.withMerged(previous, this.segments[previous], segment);
+                }
+            }
+            return this.withSegment(segmentIndex, segment);
+        }
+
+        /**
+         * Returns a snapshot with one segment replaced, or removed if the new segment is empty.
+         * Only the changed segment and the array of segments are copied.
+         */
+        private Snapshot withSegment(int segmentIndex, Segment segment) {
+            if (segment.tasks.length > 0) {
+                Segment[] segments = this.segments.clone();
+                segments[segmentIndex] = segment;
+                return new Snapshot(segments, this.renderCache);
+            }
+
+            Segment[] segments = new Segment[this.segments.length - 1];
+            System.arraycopy(this.segments, 0, segments, 0, segmentIndex);
+            System.arraycopy(this.segments, segmentIndex + 1, segments, segmentIndex, segments.length - segmentIndex);
+            return new Snapshot(segments, this.renderCache);
+        }
+
+        /**
+         * Returns a snapshot with two neighbouring segments replaced by one holding the tasks of both.
+         *
+         * @param firstSegmentIndex Index of the first of the two segments.
+         * @param first Segment with the tasks of the first of the two, after any change.
+         * @param second Segment with the tasks of the second of the two, after any change.
+         */
+        private Snapshot withMerged(int firstSegmentIndex, Segment first, Segment second) {
+            Task[] tasks = Arrays.copyOf(first.tasks, first.tasks.length + second.tasks.length);
+            System.arraycopy(second.tasks, 0, tasks, first.tasks.length, second.tasks.length);
+            int[] taskNumbers = Arrays.copyOf(first.taskNumbers, tasks.length);
+            System.arraycopy(second.taskNumbers, 0, taskNumbers, first.taskNumbers.length, second.taskNumbers.length);
+
+            Segment[] segments = new Segment[this.segments.length - 1];
+            System.arraycopy(this.segments, 0, segments, 0, firstSegmentIndex);
+            segments[firstSegmentIndex] = new Segment(tasks, taskNumbers);
+            System.arraycopy(this.segments, firstSegmentIndex + 2, segments, firstSegmentIndex + 1,
+                    segments.length - firstSegmentIndex - 1);
+            return new Snapshot(segments, this.renderCache);
+        }
+
+        private int segmentOf(int index) {
+            int segment = Arrays.binarySearch(this.segmentEnds, index + 1);
+            // An exact match is the segment ending at this task, otherwise the first segment ending after it
+            return (segment >= 0) ? segment : -segment - 1;
+        }
+
+        private int segmentStart(int segment) {
+            return (segment == 0) ? 0 : this.segmentEnds[segment - 1];
+        }
+
+        /**
+         * Returns a string representation of the tasks in the snapshot.
+         *
+         * @return A string representing the tasks, numbered with their task numbers.
+         */
+        @Override
+        public String toString() {
+            int[] indexes = new int[this.getSize()];
+            Arrays.setAll(indexes, i -> i);
+            return TaskList.formatTasks(this, indexes);
+        }
+    }
+
+    /**
+     * Returns a read-only view of the tasks in the list now, which later changes to the list do not affect.
+     *
+     * @return The snapshot of the list.
+     */
+    public TaskListView snapshot() {
+        return this.snapshot;
+    }
+
+    @Override
+    public int getSize() {
+        return this.snapshot.getSize();
+    }
+
+    @Override
+    public Task getTask(int index) {
+        return this.snapshot.getTask(index);
+    }
+
+    @Override
+    public String renderTask(int index) {
+        return this.snapshot.renderTask(index);
+    }
+
+    @Override
+    public synchronized void setRenderCache(RenderCache renderCache) {
+        super.setRenderCache(renderCache);
+        this.snapshot = new Snapshot(this.snapshot.segments, renderCache);
+    }
+
+    @Override
+    public int getTaskNumber(int index) {
+        return this.snapshot.getTaskNumber(index);
+    }
+
+    @Override
+    public int indexOfTaskNumber(int taskNumber) {
+        return this.snapshot.indexOfTaskNumber(taskNumber);
+    }
+
+    @Override
+    public synchronized int getNextTaskNumber() {
+        return this.nextTaskNumber;
+    }
+
+    @Override
+    public synchronized void skipTaskNumbers(int count) {
+        this.nextTaskNumber += count;
+    }
+
+    @Override
+    public synchronized void addToTaskList(Task t) {
+        this.snapshot = this.snapshot.withAdded(t, this.nextTaskNumber++);
+    }
+
+    @Override
+    public synchronized Task deleteTask(int taskNumber) {
+        Snapshot current = this.snapshot;
+        if ((taskNumber <= 0) || (taskNumber > current.getSize())) {
+            return null;
+        }
+
+        Task deletedTask = current.getTask(taskNumber - 1);
+        this.snapshot = current.withDeleted(taskNumber - 1);
+        return deletedTask;
+    }
+
+    /**
+     * Changes Task status, by replacing the task with a changed copy.
+     *
+     * @param taskNumber Specified task to mark or unmark.
+     * @return The changed copy of the task if valid taskNumber. Otherwise, return null.
+     */
+    @Override
+    public synchronized Task changeTaskStatus(int taskNumber, boolean isDone) {
+        Snapshot current = this.snapshot;
+        if ((taskNumber <= 0) || (taskNumber > current.getSize())) {
+            return null;
+        }
+
+        Task changedTask = current.getTask(taskNumber - 1).copy();
+        changedTask.setDone(isDone);
+        this.snapshot = current.withReplaced(taskNumber - 1, changedTask);
+        return changedTask;
+    }
+
+    /**
+     * Deletes several tasks from the list, published together as one change.
+     */
+    @Override
+    public synchronized Task[] deleteTasks(int[] taskNumbers) {
+        Snapshot current = this.snapshot;
+        if (!ConcurrentTaskList.isValidTaskNumbers(taskNumbers, current)) {
+            return null;
+        }
+
+        int[] sortedNumbers = taskNumbers.clone();
+        Arrays.sort(sortedNumbers);
+        Task[] deletedTasks = new Task[sortedNumbers.length];
+        // Deleted from the highest position down, and returned in that order like TaskList.deleteTasks
+        for (int i = sortedNumbers.length - 1; i >= 0; i--) {
+            deletedTasks[sortedNumbers.length - 1 - i] = current.getTask(sortedNumbers[i] - 1);
+            current = current.withDeleted(sortedNumbers[i] - 1);
+        }
+        this.snapshot = current;
+        return deletedTasks;
+    }
+
+    /**
+     * Changes the status of several tasks, published together as one change.
+     */
+    @Override
+    public synchronized Task[] changeTaskStatuses(int[] taskNumbers, boolean isDone) {
+        Snapshot current = this.snapshot;
+        if (!ConcurrentTaskList.isValidTaskNumbers(taskNumbers, current)) {
+            return null;
+        }
+
+        Task[] changedTasks = new Task[taskNumbers.length];
+        for (int i = 0; i < taskNumbers.length; i++) {
+            changedTasks[i] = current.getTask(taskNumbers[i] - 1).copy();
+            changedTasks[i].setDone(isDone);
+            current = current.withReplaced(taskNumbers[i] - 1, changedTasks[i]);
+        }
+        this.snapshot = current;
+        return changedTasks;
+    }
+
+    private static boolean isValidTaskNumbers(int[] taskNumbers, Snapshot snapshot) {
+        for (int taskNumber : taskNumbers) {
+            if ((taskNumber <= 0) || (taskNumber > snapshot.getSize())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected int[] findTasks(String keyword) {
+        return this.snapshot.find(index -> index.findTasks(keyword));
+    }
+
+    @Override
+    protected int[] findDeadlines(LocalDateTime from, LocalDateTime to) {
+        return this.snapshot.find(index -> index.findDeadlines(from, to));
+    }
+
+    @Override
+    protected int[] findDeadlinesBefore(LocalDateTime before) {
+        return this.snapshot.find(index -> index.findDeadlinesBefore(before));
+    }
+
+    @Override
+    protected int[] findEvents(LocalDateTime from, LocalDateTime to) {
+        return this.snapshot.find(index -> index.findEvents(from, to));
+    }
+
+    @Override
+    public String searchTasks(String keyword) {
+        return this.snapshot.searchTasks(keyword);
+    }
+
+    @Override
+    public String searchDeadlines(LocalDateTime from, LocalDateTime to) {
+        return this.snapshot.searchDeadlines(from, to);
+    }
+
+    @Override
+    public String searchDeadlinesBefore(LocalDateTime before) {
+        return this.snapshot.searchDeadlinesBefore(before);
+    }
+
+    @Override
+    public String searchEvents(LocalDateTime from, LocalDateTime to) {
+        return this.snapshot.searchEvents(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return this.snapshot.toString();
+    }
+
+}
@@ -0,0 +1,169 @@
+package aladdin;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Represents a parser and formatter for the d-M-yyyy HHmm format of {@link Aladdin#DATE_TIME_STORE}.
+ * Date/times in the usual form, with a 4-digit year and a valid day and time, are read and written
+ * digit by digit without creating any objects but the result.
+ * Anything else is handed to the DateTimeFormatter, so unusual but valid input is resolved the same way,
+ * and invalid input throws the same DateTimeParseException.
+ */
+public class DateTimeCodec {
+    /** Days in each month of a non-leap year, from January */
+    private static final int[] MONTH_LENGTHS = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Returns the date/time in part of a string.
+     *
+     * @param text Text holding the date/time.
+     * @param start Index of the first char of the date/time.
+     * @param end Index after the last char of the date/time.
+     * @return The date/time.
+     * @throws DateTimeParseException If that part of the text is not a date/time in d-M-yyyy HHmm format.
+     */
+    public static LocalDateTime parse(CharSequence text, int start, int end) throws DateTimeParseException {
+        LocalDateTime dateTime = DateTimeCodec.parseUsual(text, null, start, end);
+        return (dateTime != null)
+                ? dateTime
+                : LocalDateTime.parse(text.subSequence(start, end), Aladdin.DATE_TIME_STORE);
+    }
+
+    /**
+     * Returns the date/time in a string.
+     *
+     * @param text Text of the date/time.
+     * @return The date/time.
+     * @throws DateTimeParseException If the text is not a date/time in d-M-yyyy HHmm format.
+     */
+    public static LocalDateTime parse(CharSequence text) throws DateTimeParseException {
+        return DateTimeCodec.parse(text, 0, text.length());
+    }
+
+    /**
+     * Returns the date/time in part of an array of UTF-8 bytes.
+     *
+     * @param bytes Bytes holding the date/time.
+     * @param start Index of the first byte of the date/time.
+     * @param end Index after the last byte of the date/time.
+     * @return The date/time.
+     * @throws DateTimeParseException If those bytes are not a date/time in d-M-yyyy HHmm format.
+     */
+    public static LocalDateTime parse(byte[] bytes, int start, int end) throws DateTimeParseException {
+        LocalDateTime dateTime = DateTimeCodec.parseUsual(null, bytes, start, end);
+        return (dateTime != null)
+                ? dateTime
+                : LocalDateTime.parse(new String(bytes, start, end - start, StandardCharsets.UTF_8),
+                        Aladdin.DATE_TIME_STORE);
+    }
+
+    /**
+     * Returns the date/time in either chars or bytes, or null if it is not in the usual form of
+     * a 1 or 2 digit day and month, a 4-digit year and a valid day and time.
+     */
+    private static LocalDateTime parseUsual(CharSequence text, byte[] bytes, int start, int end) {
+        int length = end - start;
+        if ((length < 13) || (length > 15)) {
+            return null;
+        }
+
+        // From the end: a '-', 4 digits of year, a space and 4 digits of time
+        int yearStart = end - 9;
+        if ((DateTimeCodec.charAt(text, bytes, yearStart - 1) != '-')
+                || (DateTimeCodec.charAt(text, bytes, end - 5) != ' ')) {
+            return null;
+        }
+        int year = DateTimeCodec.digits(text, bytes, yearStart, yearStart + 4);
+        int hour = DateTimeCodec.digits(text, bytes, end - 4, end - 2);
+        int minute = DateTimeCodec.digits(text, bytes, end - 2, end);
+
+        // Then the day and month, each of 1 or 2 digits, separated by a '-'
+        int monthEnd = yearStart - 1;
+        int monthStart = (DateTimeCodec.charAt(text, bytes, monthEnd - 2) == '-') ? monthEnd - 1 : monthEnd - 2;
+        if ((monthStart - 1 <= start) || (DateTimeCodec.charAt(text, bytes, monthStart - 1) != '-')) {
+            return null;
+        }
+        int month = DateTimeCodec.digits(text, bytes, monthStart, monthEnd);
+        int day = DateTimeCodec.digits(text, bytes, start, monthStart - 1);
+
+        if ((minute < 0) || (minute > 59) || (hour < 0) || (hour > 23) || (year < 1)
+                || (month < 1) || (month > 12) || (day < 1) || (day > DateTimeCodec.monthLength(month, year))) {
+            // Not a usual date/time, or not valid, so left to the DateTimeFormatter to resolve or reject
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * Returns the number in 1 to 4 chars or bytes, or -1 if they are not all digits.
+     */
+    private static int digits(CharSequence text, byte[] bytes, int start, int end) {
+        if ((end <= start) || (end - start > 4)) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = DateTimeCodec.charAt(text, bytes, i) - '0';
+            if ((digit < 0) || (digit > 9)) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static char charAt(CharSequence text, byte[] bytes, int index) {
+        // A byte of a non-ASCII char is at least 0x80, so it is not a digit or separator either
+        return (text != null) ? text.charAt(index) : (char) (bytes[index] & 0xff);
+    }
+
+    private static int monthLength(int month, int year) {
+        boolean isLeap = ((year % 4 == 0) && (year % 100 != 0)) || (year % 400 == 0);
+        return ((month == 2) && isLeap) ? 29 : MONTH_LENGTHS[month - 1];
+    }
+
+    /**
+     * Returns a date/time in d-M-yyyy HHmm format.
+     *
+     * @param dateTime Date/time to format.
+     * @return The formatted date/time.
+     */
+    public static String format(LocalDateTime dateTime) {
+        return DateTimeCodec.appendTo(new StringBuilder(13), dateTime).toString();
+    }
+
+    /**
+     * Appends a date/time in d-M-yyyy HHmm format.
+     *
+     * @param builder Builder to append to.
+     * @param dateTime Date/time to format.
+     * @return The builder.
+     */
+    public static StringBuilder appendTo(StringBuilder builder, LocalDateTime dateTime) {
+        int year = dateTime.getYear();
+        if ((year < 1) || (year > 9999)) {
+            // Years outside 4 digits have a sign or era to follow, so are left to the DateTimeFormatter
+            return builder.append(dateTime.format(Aladdin.DATE_TIME_STORE));
+        }
+
+        builder.append(dateTime.getDayOfMonth()).append('-').append(dateTime.getMonthValue()).append('-');
+        DateTimeCodec.appendDigits(builder, year, 4);
+        builder.append(' ');
+        DateTimeCodec.appendDigits(builder, dateTime.getHour(), 2);
+        DateTimeCodec.appendDigits(builder, dateTime.getMinute(), 2);
+        return builder;
+    }
+
+    /**
+     * Appends a number with leading zeros up to a number of digits.
+     */
+    private static void appendDigits(StringBuilder builder, int value, int count) {
+        for (int divisor = (count == 4) ? 1000 : 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+}
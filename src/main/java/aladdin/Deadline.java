@@ -29,17 +29,17 @@ public class Deadline extends Task {
     @Override
     public String serialise() {
         return "D|" + (this.isDone ? "1" : "0") + "|"
-                + this.description + "|" + this.by.format(Aladdin.DATE_TIME_STORE);
+                + this.description + "|" + DateTimeCodec.format(this.by);
     }
 
     /**
-     * Returns a string representation of a Deadline task.
+     * Returns a newly formatted string representation of a Deadline task.
      *
      * @return A string representing the Deadline task.
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (By: "
+    protected String render() {
+        return "[D]" + super.render() + " (By: "
                 + this.by.format(Aladdin.DATE_TIME_DISPLAY) + ")";
     }
 }
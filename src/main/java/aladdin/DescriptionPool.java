@@ -0,0 +1,94 @@
+package aladdin;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents a pool of task descriptions, so tasks with the same description share one String.
+ * Recurring tasks, such as a weekly "submit timesheet", otherwise each hold their own copy.
+ * The pool is a fixed-size table where each description replaces whatever was in its slot,
+ * so its memory is bounded however many different descriptions are seen, at the cost of missing some repeats.
+ * Threads can share a pool without locking, as a slot only ever holds a whole, immutable String.
+ */
+public class DescriptionPool {
+    /** Default number of slots */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /** Description last seen in each slot, or null if none */
+    private final String[] slots;
+
+    /**
+     * Creates a DescriptionPool instance.
+     *
+     * @param capacity Number of slots, rounded up to a power of two.
+     */
+    public DescriptionPool(int capacity) {
+        this.slots = new String[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+    }
+
+    /**
+     * Returns a pooled String equal to a description.
+     *
+     * @param description Description to pool.
+     * @return An equal description from the pool, or the description itself if it was not there.
+     */
+    public String intern(String description) {
+        int slot = this.slotOf(description.hashCode());
+        String pooled = this.slots[slot];
+        if (description.equals(pooled)) {
+            return pooled;
+        }
+        this.slots[slot] = description;
+        return description;
+    }
+
+    /**
+     * Returns a pooled String of a UTF-8 encoded description.
+     * An ASCII description is looked up straight from its bytes, so no String is created if it is in the pool.
+     *
+     * @param bytes Array holding the encoded description.
+     * @param start Index of the first byte of the description.
+     * @param end Index after the last byte of the description.
+     * @return The decoded description, from the pool if it was there.
+     */
+    public String intern(byte[] bytes, int start, int end) {
+        // Same hash as String.hashCode, which is only the same for ASCII, as each byte is then one char
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return this.intern(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + bytes[i];
+        }
+
+        int slot = this.slotOf(hash);
+        String pooled = this.slots[slot];
+        if ((pooled != null) && DescriptionPool.isEqual(pooled, bytes, start, end)) {
+            return pooled;
+        }
+        // Java stores Latin-1 strings one byte per char, so an ASCII description stays a byte array
+        String description = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        this.slots[slot] = description;
+        return description;
+    }
+
+    private int slotOf(int hash) {
+        // Mix in the high bits, as the table only uses the low bits
+        return (hash ^ (hash >>> 16)) & (this.slots.length - 1);
+    }
+
+    /**
+     * Returns true if a String has exactly the chars of some ASCII bytes.
+     */
+    private static boolean isEqual(String string, byte[] bytes, int start, int end) {
+        if (string.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -33,17 +33,17 @@ public class Event extends Task {
     @Override
     public String serialise() {
         return "E|" + (this.isDone ? "1" : "0") + "|" + this.description + "|"
-                + this.from.format(Aladdin.DATE_TIME_STORE) + "|" + this.to.format(Aladdin.DATE_TIME_STORE);
+                + DateTimeCodec.format(this.from) + "|" + DateTimeCodec.format(this.to);
     }
 
     /**
-     * Returns a string representation of an Event.
+     * Returns a newly formatted string representation of an Event.
      *
      * @return A string representing the Event.
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (From: " + this.from.format(Aladdin.DATE_TIME_DISPLAY)
+    protected String render() {
+        return "[E]" + super.render() + " (From: " + this.from.format(Aladdin.DATE_TIME_DISPLAY)
                 + ". To: " + this.to.format(Aladdin.DATE_TIME_DISPLAY) + ")";
     }
 }
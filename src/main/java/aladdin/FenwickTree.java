@@ -0,0 +1,108 @@
+package aladdin;
+
+/**
+ * Represents a Fenwick (binary indexed) tree over a fixed number of slots.
+ * Each slot holds a count, so prefix sums and finding the slot of the k-th counted item take O(log n).
+ */
+public class FenwickTree {
+    /** Counts, where index i holds the sum of a range of slots ending at slot i - 1 */
+    private int[] tree;
+
+    /**
+     * Creates a FenwickTree instance with every slot set to 0.
+     *
+     * @param capacity Number of slots.
+     */
+    public FenwickTree(int capacity) {
+        this.tree = new int[capacity + 1];
+    }
+
+    /**
+     * Creates a FenwickTree instance with the first slots set to 1, in O(n).
+     *
+     * @param capacity Number of slots.
+     * @param setCount Number of slots, from slot 0, set to 1.
+     */
+    public FenwickTree(int capacity, int setCount) {
+        this(capacity);
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= setCount) {
+                this.tree[i] += 1;
+            }
+            // Every slot passes its sum up, including unset ones whose range holds set slots
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of a FenwickTree, which changes independently of it.
+     *
+     * @param other Tree to copy.
+     */
+    public FenwickTree(FenwickTree other) {
+        this.tree = other.tree.clone();
+    }
+
+    /**
+     * Getter for the number of slots.
+     *
+     * @return Number of slots.
+     */
+    public int getCapacity() {
+        return this.tree.length - 1;
+    }
+
+    /**
+     * Adds to the count of a slot.
+     *
+     * @param slot Slot to change (starts from 0).
+     * @param delta Amount to add to the count.
+     */
+    public void add(int slot, int delta) {
+        for (int i = slot + 1; i < this.tree.length; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the counts of the slots before a slot.
+     *
+     * @param slot Slot to sum up to, excluding itself (starts from 0).
+     * @return Sum of the counts of slots 0 to slot - 1.
+     */
+    public int prefixSum(int slot) {
+        int sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the slot at which the prefix sum reaches a count, for counts of 0 or 1.
+     * This is the slot of the k-th item, when each item present has a count of 1.
+     *
+     * @param k Position of the item (starts from 1).
+     * @return Slot of the k-th item (starts from 0), or -1 if there are fewer than k items.
+     */
+    public int findKth(int k) {
+        if (k <= 0) {
+            return -1;
+        }
+
+        int position = 0;
+        int remaining = k;
+        for (int step = Integer.highestOneBit(this.tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if ((next < this.tree.length) && (this.tree[next] < remaining)) {
+                position = next;
+                remaining -= this.tree[next];
+            }
+        }
+        return (position < this.tree.length - 1) ? position : -1;
+    }
+
+}
@@ -0,0 +1,214 @@
+package aladdin;
+
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents an interval tree of task times, as a treap ordered by the start of each interval.
+ * Each node also holds the latest end in its subtree, so subtrees that cannot overlap a range are skipped,
+ * and a range query takes O(log n) plus the number of intervals found.
+ * Times are in seconds, and both ends of an interval are inclusive.
+ * A range queried may include its end, or stop just before it.
+ */
+public class IntervalTree {
+    /** Random priorities, which keep the treap balanced whatever order intervals are added in */
+    private final Random random = new Random();
+    /** Root of the tree, or null if empty */
+    private Node root;
+    /** Number of intervals in the tree */
+    private int size;
+
+    /**
+     * Represents an interval of a task.
+     */
+    private static class Node {
+        /** Start of the interval */
+        private final long start;
+        /** End of the interval */
+        private final long end;
+        /** Id of the task */
+        private final int taskId;
+        /** Heap priority of the node, higher than every node below it */
+        private final int priority;
+        /** Latest end of the intervals in this subtree */
+        private long maxEnd;
+        /** Intervals ordered before this one */
+        private Node left;
+        /** Intervals ordered after this one */
+        private Node right;
+
+        Node(long start, long end, int taskId, int priority) {
+            this.start = start;
+            this.end = end;
+            this.taskId = taskId;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        /**
+         * Returns true if this node is ordered before an interval, by start then task id.
+         */
+        boolean isBefore(long otherStart, int otherTaskId) {
+            return (this.start < otherStart) || ((this.start == otherStart) && (this.taskId < otherTaskId));
+        }
+
+        void updateMaxEnd() {
+            this.maxEnd = this.end;
+            if ((this.left != null) && (this.left.maxEnd > this.maxEnd)) {
+                this.maxEnd = this.left.maxEnd;
+            }
+            if ((this.right != null) && (this.right.maxEnd > this.maxEnd)) {
+                this.maxEnd = this.right.maxEnd;
+            }
+        }
+    }
+
+    /**
+     * Returns number of intervals in the tree.
+     *
+     * @return Number of intervals.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Adds the interval of a task.
+     *
+     * @param start Start of the interval.
+     * @param end End of the interval, not before its start.
+     * @param taskId Id of the task.
+     */
+    public void insert(long start, long end, int taskId) {
+        this.root = IntervalTree.insert(this.root, new Node(start, end, taskId, this.random.nextInt()));
+        this.size++;
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+
+        if (node.isBefore(newNode.start, newNode.taskId)) {
+            node.right = IntervalTree.insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                return IntervalTree.rotateLeft(node);
+            }
+        } else {
+            node.left = IntervalTree.insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                return IntervalTree.rotateRight(node);
+            }
+        }
+        node.updateMaxEnd();
+        return node;
+    }
+
+    /**
+     * Removes the interval of a task.
+     *
+     * @param start Start of the interval.
+     * @param taskId Id of the task.
+     * @return True if the interval was in the tree. Otherwise, false.
+     */
+    public boolean remove(long start, int taskId) {
+        int sizeBefore = this.size;
+        this.root = this.remove(this.root, start, taskId);
+        return this.size < sizeBefore;
+    }
+
+    private Node remove(Node node, long start, int taskId) {
+        if (node == null) {
+            return null;
+        }
+
+        if ((node.start == start) && (node.taskId == taskId)) {
+            this.size--;
+            return IntervalTree.merge(node.left, node.right);
+        } else if (node.isBefore(start, taskId)) {
+            node.right = this.remove(node.right, start, taskId);
+        } else {
+            node.left = this.remove(node.left, start, taskId);
+        }
+        node.updateMaxEnd();
+        return node;
+    }
+
+    /**
+     * Returns the two subtrees of a removed node merged, where every node of left is ordered before right.
+     */
+    private static Node merge(Node left, Node right) {
+        if ((left == null) || (right == null)) {
+            return (left != null) ? left : right;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = IntervalTree.merge(left.right, right);
+            left.updateMaxEnd();
+            return left;
+        }
+        right.left = IntervalTree.merge(left, right.left);
+        right.updateMaxEnd();
+        return right;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        node.updateMaxEnd();
+        newRoot.updateMaxEnd();
+        return newRoot;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        node.updateMaxEnd();
+        newRoot.updateMaxEnd();
+        return newRoot;
+    }
+
+    /**
+     * Passes the task id of every interval overlapping a range to an action.
+     *
+     * @param from Start of the range.
+     * @param to End of the range.
+     * @param action Action to perform on each task id, in order of interval start.
+     */
+    public void forEachOverlapping(long from, long to, IntConsumer action) {
+        IntervalTree.forEachOverlapping(this.root, from, to, true, action);
+    }
+
+    /**
+     * Passes the task id of every interval overlapping a half-open range to an action.
+     * An interval overlaps the range if it ends at or after from, and starts strictly before to.
+     *
+     * @param from Start of the range (inclusive).
+     * @param to End of the range (exclusive).
+     * @param action Action to perform on each task id, in order of interval start.
+     */
+    public void forEachOverlappingBefore(long from, long to, IntConsumer action) {
+        IntervalTree.forEachOverlapping(this.root, from, to, false, action);
+    }
+
+    private static void forEachOverlapping(Node node, long from, long to, boolean isToInclusive,
+            IntConsumer action) {
+        // No interval in this subtree ends at or after the range starts
+        if ((node == null) || (node.maxEnd < from)) {
+            return;
+        }
+
+        IntervalTree.forEachOverlapping(node.left, from, to, isToInclusive, action);
+        if ((node.start > to) || (!isToInclusive && (node.start == to))) {
+            // This interval and every one after it starts after the range ends
+            return;
+        }
+        if (node.end >= from) {
+            action.accept(node.taskId);
+        }
+        IntervalTree.forEachOverlapping(node.right, from, to, isToInclusive, action);
+    }
+
+}
@@ -0,0 +1,580 @@
+package aladdin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.util.List;
+
+/**
+ * Represents an append-only log of changes made to a TaskList.
+ * Each change is written as one small record, instead of rewriting every task in the storage file.
+ * Records are written by a persistence thread, which coalesces bursts of records into one write.
+ * Each record ends with a checksum, so a record torn by a crash is detected when replayed.
+ */
+public class MutationLog {
+    /**
+     * Enumeration for when appended records are written to the log file
+     */
+    public enum Durability { EVERY_COMMAND, INTERVAL, ON_EXIT }
+
+    /** Default time between writes for INTERVAL durability */
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    /** Size of pending records that is written even before the next interval or exit */
+    private static final int MAX_PENDING_SIZE = 1 << 20;
+
+    /** Record prefix for an added task */
+    private static final String ADD = "ADD";
+    /** Record prefix for a task marked as done */
+    private static final String MARK = "MARK";
+    /** Record prefix for a task marked as not done */
+    private static final String UNMARK = "UNMARK";
+    /** Record prefix for a deleted task */
+    private static final String DELETE = "DELETE";
+
+    /** File path for the log file */
+    private String filePath;
+    /** Channel for appending records, opened on first write */
+    private FileChannel channel;
+    /** Whether each write is forced to the storage device before it is considered written */
+    private boolean isSynced;
+    /** When appended records are written to the log file */
+    private Durability durability = Durability.EVERY_COMMAND;
+    /** Time between writes for INTERVAL durability */
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    /** Records appended but not yet written */
+    private StringBuilder pendingRecords = new StringBuilder();
+    /** Time the oldest pending record was appended */
+    private long pendingSinceMillis;
+    /** Number of records appended */
+    private long appendedCount;
+    /** Number of appended records written */
+    private long writtenCount;
+    /** Number of appended records up to the end of the last failed write */
+    private long failedCount;
+    /** Set when a caller waits for every pending record to be written */
+    private boolean isFlushRequested;
+    /** Set after a failed write, so it is only retried by the next append or flush */
+    private boolean isRetryHeld;
+    /** Error from the last failed write */
+    private IOException writeError;
+    /** Thread that writes pending records, started on first append */
+    private Thread persistenceThread;
+    /** Number of records in the log file */
+    private int recordCount;
+    /** Approximate size of the log file in bytes */
+    private long byteCount;
+    /** Number of corrupted records skipped by the last replay */
+    private int skippedCount;
+
+    /**
+     * Creates a MutationLog instance.
+     *
+     * @param filePath The path of the log file.
+     */
+    public MutationLog(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Returns true if the log file exists.
+     *
+     * @return True if the log file exists. Otherwise, false.
+     */
+    public boolean exists() {
+        return Files.exists(Paths.get(this.filePath));
+    }
+
+    /**
+     * Sets when appended records are written to the log file.
+     *
+     * @param durability EVERY_COMMAND to write before each append returns, INTERVAL to write
+     *     every intervalMillis, or ON_EXIT to write when the log is closed.
+     * @param intervalMillis Time between writes for INTERVAL durability.
+     */
+    public synchronized void setDurability(Durability durability, long intervalMillis) {
+        this.durability = durability;
+        this.intervalMillis = intervalMillis;
+        this.notifyAll();
+    }
+
+    /**
+     * Sets whether each write is forced to the storage device, so it survives a power failure.
+     *
+     * @param isSynced If writes are forced to the storage device, true. Otherwise, false.
+     */
+    public synchronized void setSynced(boolean isSynced) {
+        this.isSynced = isSynced;
+    }
+
+    /**
+     * Getter for recordCount.
+     *
+     * @return Number of records in the log file.
+     */
+    public int getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Getter for byteCount.
+     *
+     * @return Approximate size of the log file in bytes.
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    /**
+     * Getter for filePath.
+     *
+     * @return The path of the log file.
+     */
+    public String getFilePath() {
+        return this.filePath;
+    }
+
+    /**
+     * Getter for skippedCount.
+     *
+     * @return Number of corrupted records skipped by the last replay.
+     */
+    public int getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Returns the record for a task added to the end of the list.
+     *
+     * @param task The task added.
+     * @return The serialised record.
+     */
+    public static String addRecord(Task task) {
+        return ADD + "|" + task.serialise();
+    }
+
+    /**
+     * Returns the record for a change in task status.
+     *
+     * @param taskNumber The task number changed (starts from 1).
+     * @param isDone If the task is now done, true. Otherwise, false.
+     * @return The serialised record.
+     */
+    public static String statusRecord(int taskNumber, boolean isDone) {
+        return (isDone ? MARK : UNMARK) + "|" + taskNumber;
+    }
+
+    /**
+     * Returns the record for a deleted task.
+     *
+     * @param taskNumber The task number deleted (starts from 1).
+     * @return The serialised record.
+     */
+    public static String deleteRecord(int taskNumber) {
+        return DELETE + "|" + taskNumber;
+    }
+
+    /**
+     * Applies a single record to a TaskList.
+     *
+     * @param record Serialised record to apply.
+     * @param taskList The list of tasks to apply the record to.
+     * @param descriptionPool Pool the descriptions of added tasks are shared through, or null if they are not pooled.
+     * @throws ArrayIndexOutOfBoundsException If the record is corrupted.
+     * @throws NumberFormatException If the task number in the record is corrupted.
+     */
+    protected static void applyRecord(String record, TaskList taskList, DescriptionPool descriptionPool)
+            throws ArrayIndexOutOfBoundsException, NumberFormatException {
+        int separatorIndex = record.indexOf('|');
+        if (separatorIndex < 0) {
+            throw new ArrayIndexOutOfBoundsException("Missing record type separator");
+        }
+        String recordType = record.substring(0, separatorIndex);
+        String recordBody = record.substring(separatorIndex + 1);
+
+        switch (recordType) {
+        case ADD:
+            taskList.addToTaskList(Storage.deserialiseTask(recordBody, descriptionPool));
+            break;
+
+        case MARK:
+            taskList.changeTaskStatus(Integer.parseInt(recordBody), true);
+            break;
+
+        case UNMARK:
+            taskList.changeTaskStatus(Integer.parseInt(recordBody), false);
+            break;
+
+        case DELETE:
+            taskList.deleteTask(Integer.parseInt(recordBody));
+            break;
+
+        default:
+            throw new ArrayIndexOutOfBoundsException("Unknown record type: " + recordType);
+        }
+    }
+
+    /**
+     * Appends a record to the log.
+     * With EVERY_COMMAND durability, returns once the record is written to the log file.
+     * Otherwise, returns straight away and the record is written later by the persistence thread,
+     * which reports a failed write as soon as it happens.
+     *
+     * @param record Serialised record to append.
+     * @throws AladdinException If an error occurs when creating/writing the log file.
+     */
+    public synchronized void append(String record) throws AladdinException {
+        this.append(List.of(record));
+    }
+
+    /**
+     * Appends records to the log, to be written together in a single write.
+     * With EVERY_COMMAND durability, returns once the records are written to the log file.
+     * Otherwise, returns straight away and the records are written later by the persistence thread,
+     * which reports a failed write as soon as it happens.
+     *
+     * @param records Serialised records to append, in order.
+     * @throws AladdinException If an error occurs when creating/writing the log file.
+     */
+    public synchronized void append(List<String> records) throws AladdinException {
+        this.startPersistenceThread();
+
+        if (this.pendingRecords.length() == 0) {
+            this.pendingSinceMillis = System.currentTimeMillis();
+        }
+        for (String record : records) {
+            String checkedRecord = RecordChecksum.append(record);
+            this.pendingRecords.append(checkedRecord).append(System.lineSeparator());
+            this.appendedCount++;
+            this.recordCount++;
+            this.byteCount += checkedRecord.length() + System.lineSeparator().length();
+        }
+        this.isRetryHeld = false;
+        this.notifyAll();
+
+        if (this.durability == Durability.EVERY_COMMAND) {
+            this.awaitWritten(this.appendedCount);
+        }
+    }
+
+    /**
+     * Writes every pending record to the log file, and waits for the write to finish.
+     *
+     * @throws AladdinException If an error occurs when writing the log file.
+     */
+    public synchronized void flush() throws AladdinException {
+        long count = this.appendedCount;
+        // Records kept pending by an earlier failed write are retried
+        this.failedCount = this.writtenCount;
+
+        try {
+            while ((this.writtenCount < count) && (this.failedCount < count)) {
+                this.isRetryHeld = false;
+                this.isFlushRequested = true;
+                this.notifyAll();
+                this.wait();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AladdinException("Interrupted while writing to " + this.filePath + " file");
+        }
+        this.throwIfNotWritten(count);
+    }
+
+    private void startPersistenceThread() {
+        if (this.persistenceThread != null) {
+            return;
+        }
+        this.persistenceThread = new Thread(this::writePendingRecords, "aladdin-persistence");
+        this.persistenceThread.setDaemon(true);
+        this.persistenceThread.start();
+    }
+
+    private void awaitWritten(long count) throws AladdinException {
+        try {
+            while ((this.writtenCount < count) && (this.failedCount < count)) {
+                this.wait();
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AladdinException("Interrupted while writing to " + this.filePath + " file");
+        }
+        this.throwIfNotWritten(count);
+    }
+
+    /**
+     * Throws the error from the last failed write if any of the first count appended records are not written.
+     */
+    private void throwIfNotWritten(long count) throws AladdinException {
+        if (this.writtenCount < count) {
+            throw this.createWriteException(this.writeError);
+        }
+    }
+
+    private AladdinException createWriteException(IOException e) {
+        return new AladdinException("Error writing to " + this.filePath + " file to save tasks: " + e.getMessage());
+    }
+
+    /**
+     * Returns true if the pending records should be written now.
+     */
+    private boolean isWriteDue() {
+        if ((this.pendingRecords.length() == 0) || this.isRetryHeld) {
+            return false;
+        }
+        if (this.isFlushRequested || (this.durability == Durability.EVERY_COMMAND)
+                || (this.pendingRecords.length() >= MAX_PENDING_SIZE)) {
+            return true;
+        }
+        return (this.durability == Durability.INTERVAL)
+                && (System.currentTimeMillis() - this.pendingSinceMillis >= this.intervalMillis);
+    }
+
+    /**
+     * Runs the persistence thread, which writes every record pending at once in a single write.
+     * A failed batch is kept pending, so it is retried by the next write.
+     * If no caller is waiting for the batch, the failure is reported as soon as it happens.
+     */
+    private void writePendingRecords() {
+        while (true) {
+            String batch;
+            long batchCount;
+            boolean isAwaited;
+
+            synchronized (this) {
+                try {
+                    while (true) {
+                        if (this.persistenceThread != Thread.currentThread()) {
+                            // Log closed
+                            return;
+                        }
+                        if (this.isWriteDue()) {
+                            break;
+                        }
+
+                        if ((this.durability == Durability.INTERVAL) && (this.pendingRecords.length() > 0)
+                                && !this.isRetryHeld) {
+                            long elapsedMillis = System.currentTimeMillis() - this.pendingSinceMillis;
+                            this.wait(Math.max(1, this.intervalMillis - elapsedMillis));
+                        } else {
+                            this.wait();
+                        }
+                    }
+
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                batch = this.pendingRecords.toString();
+                batchCount = this.appendedCount;
+                isAwaited = this.isFlushRequested || (this.durability == Durability.EVERY_COMMAND);
+                this.pendingRecords.setLength(0);
+                this.isFlushRequested = false;
+            }
+
+            IOException batchError = null;
+            try {
+                this.writeBatch(batch);
+
+            } catch (IOException e) {
+                batchError = e;
+            }
+
+            synchronized (this) {
+                if (batchError == null) {
+                    this.writtenCount = batchCount;
+                } else {
+                    this.writeError = batchError;
+                    this.failedCount = batchCount;
+                    this.pendingRecords.insert(0, batch);
+                    this.isRetryHeld = true;
+                    isAwaited |= this.isFlushRequested || (this.durability == Durability.EVERY_COMMAND);
+                }
+                this.notifyAll();
+            }
+
+            if ((batchError != null) && !isAwaited) {
+                // Reported outside the lock, so appending is not held up by the output
+                Ui.printException(this.createWriteException(batchError));
+                Ui.flush();
+            }
+        }
+    }
+
+    private void writeBatch(String batch) throws IOException {
+        if (this.channel == null) {
+            Path logPath = Paths.get(this.filePath);
+            Path parentDirectory = logPath.getParent();
+            if (parentDirectory != null) {
+                // Creates parent directory if it does not exist
+                Files.createDirectories(parentDirectory);
+            }
+            this.channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(batch.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            this.channel.write(bytes);
+        }
+        if (this.isSynced) {
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Replays every record in the log file onto a TaskList.
+     * Replaying stops at the first corrupted record, such as one torn by a crash,
+     * and the number of records skipped is kept in skippedCount.
+     *
+     * @param taskList The list of tasks to apply the records to.
+     * @return The number of records replayed.
+     * @throws AladdinException If the log file cannot be read.
+     */
+    public int replay(TaskList taskList) throws AladdinException {
+        return this.replay(taskList, null);
+    }
+
+    /**
+     * Replays every record in the log file onto a TaskList, sharing the descriptions of added tasks through a pool.
+     *
+     * @param taskList The list of tasks to apply the records to.
+     * @param descriptionPool Pool the descriptions of added tasks are shared through, or null if they are not pooled.
+     * @return The number of records replayed.
+     * @throws AladdinException If the log file cannot be read.
+     */
+    public synchronized int replay(TaskList taskList, DescriptionPool descriptionPool) throws AladdinException {
+        int recordCount = 0;
+        int skippedCount = 0;
+        boolean isChecksumRequired = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(this.filePath), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if ((skippedCount == 0) && MutationLog.applyLine(line, isChecksumRequired, taskList, descriptionPool)) {
+                    // Lines after the first with a checksum were all written with one
+                    isChecksumRequired |= RecordChecksum.hasChecksum(line);
+                    recordCount++;
+                } else {
+                    skippedCount++;
+                }
+            }
+
+        } catch (NoSuchFileException e) {
+            // If log does not exist, no changes to replay
+            this.skippedCount = 0;
+            return 0;
+
+        } catch (IOException e) {
+            throw new AladdinException("Error reading " + this.filePath + " file: " + e.getMessage());
+        }
+
+        this.recordCount = recordCount;
+        this.byteCount = this.getFileSize();
+        this.skippedCount = skippedCount;
+        return recordCount;
+    }
+
+    /**
+     * Applies the record in a line of the log file to a TaskList.
+     *
+     * @return True if the record was applied, or false if it is corrupted.
+     */
+    private static boolean applyLine(String line, boolean isChecksumRequired, TaskList taskList,
+            DescriptionPool descriptionPool) {
+        String record = RecordChecksum.strip(line, isChecksumRequired);
+        if (record == null) {
+            return false;
+        }
+
+        try {
+            MutationLog.applyRecord(record, taskList, descriptionPool);
+            return true;
+
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Moves the log file to another path, so that later records start a new log file.
+     *
+     * @param rotatedFilePath The path to move the log file to.
+     * @throws AladdinException If an error occurs when moving the log file.
+     */
+    public synchronized void rotate(String rotatedFilePath) throws AladdinException {
+        this.close();
+        try {
+            if (this.exists()) {
+                Files.move(Paths.get(this.filePath), Paths.get(rotatedFilePath));
+            }
+            this.recordCount = 0;
+            this.byteCount = 0;
+
+        } catch (IOException e) {
+            throw new AladdinException("Error rotating " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    private long getFileSize() {
+        try {
+            return Files.size(Paths.get(this.filePath));
+
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Deletes the log file, after its records have been saved into the storage file.
+     *
+     * @throws AladdinException If an error occurs when truncating the log file.
+     */
+    public synchronized void clear() throws AladdinException {
+        this.close();
+        try {
+            Files.deleteIfExists(Paths.get(this.filePath));
+            this.recordCount = 0;
+            this.byteCount = 0;
+
+        } catch (IOException e) {
+            throw new AladdinException("Error clearing " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every pending record, then stops the persistence thread and closes the log file.
+     * The log is reopened if another record is appended.
+     *
+     * @throws AladdinException If an error occurs when writing or closing the log file.
+     */
+    public synchronized void close() throws AladdinException {
+        this.flush();
+        this.persistenceThread = null;
+        this.notifyAll();
+
+        try {
+            if (this.channel != null) {
+                this.channel.close();
+                this.channel = null;
+            }
+
+        } catch (IOException e) {
+            throw new AladdinException("Error closing " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+}
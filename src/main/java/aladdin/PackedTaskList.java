@@ -0,0 +1,323 @@
+package aladdin;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Represents a list of tasks packed into parallel primitive arrays, instead of one object per task.
+ * Each task is a type, a done flag and up to two times in epoch minutes, with its description in a shared
+ * UTF-8 arena, so a task costs tens of bytes rather than the headers and references of several objects.
+ * Task objects are only created when a task is read, and changing them does not change the list.
+ * A deleted task leaves an empty slot, like {@link TaskSlots}, which is removed when the slots are full,
+ * and each slot keeps the id of its task, which gives the task number shown for it.
+ */
+public class PackedTaskList extends TaskList {
+    /** Smallest number of slots */
+    private static final int MIN_CAPACITY = 16;
+    /** Type of a todo task */
+    private static final byte TODO = 'T';
+    /** Type of a deadline task */
+    private static final byte DEADLINE = 'D';
+    /** Type of an event task */
+    private static final byte EVENT = 'E';
+    /** Type of an empty slot, whose task was deleted */
+    private static final byte DELETED = 0;
+
+    /** Type of the task in each slot */
+    private byte[] types = new byte[MIN_CAPACITY];
+    /** Done flag of the task in each slot */
+    private boolean[] doneFlags = new boolean[MIN_CAPACITY];
+    /** Deadline 'by' or Event 'from' date/time of the task in each slot, in minutes since the epoch */
+    private long[] startMinutes = new long[MIN_CAPACITY];
+    /** Event 'to' date/time of the task in each slot, in minutes since the epoch */
+    private long[] endMinutes = new long[MIN_CAPACITY];
+    /** Start of the description of the task in each slot in the arena, followed by the end of the last one */
+    private int[] descriptionStarts = new int[MIN_CAPACITY + 1];
+    /** Id of the task in each slot, which only increase from slot to slot */
+    private int[] taskIds = new int[MIN_CAPACITY];
+    /** UTF-8 bytes of every description, in slot order */
+    private byte[] arena = new byte[MIN_CAPACITY * 32];
+    /** Slots that hold a task */
+    private FenwickTree filledSlots = new FenwickTree(MIN_CAPACITY);
+    /** Number of slots used, including empty ones */
+    private int slotCount;
+    /** Number of tasks */
+    private int taskCount;
+    /** Id given to the next task added */
+    private int nextTaskId;
+    /** Pool the descriptions of the tasks read are shared through, so reading a task again does not copy it */
+    private final DescriptionPool descriptionPool = new DescriptionPool(DescriptionPool.DEFAULT_CAPACITY);
+
+    @Override
+    public int getSize() {
+        return this.taskCount;
+    }
+
+    @Override
+    public void addToTaskList(Task t) {
+        byte[] description = t.description.getBytes(StandardCharsets.UTF_8);
+        if (this.slotCount == this.types.length) {
+            this.compact();
+        }
+        int arenaEnd = this.descriptionStarts[this.slotCount];
+        if (arenaEnd + description.length > this.arena.length) {
+            this.arena = Arrays.copyOf(this.arena, Math.max(this.arena.length * 2, arenaEnd + description.length));
+        }
+
+        int slot = this.slotCount;
+        if (t instanceof Deadline) {
+            this.types[slot] = DEADLINE;
+            this.startMinutes[slot] = PackedTaskList.toMinutes(((Deadline) t).by);
+        } else if (t instanceof Event) {
+            this.types[slot] = EVENT;
+            this.startMinutes[slot] = PackedTaskList.toMinutes(((Event) t).from);
+            this.endMinutes[slot] = PackedTaskList.toMinutes(((Event) t).to);
+        } else {
+            this.types[slot] = TODO;
+        }
+        this.doneFlags[slot] = t.isDone;
+        this.taskIds[slot] = this.nextTaskId++;
+        System.arraycopy(description, 0, this.arena, arenaEnd, description.length);
+        this.descriptionStarts[slot + 1] = arenaEnd + description.length;
+
+        this.filledSlots.add(slot, 1);
+        this.slotCount++;
+        this.taskCount++;
+    }
+
+    /**
+     * Returns a new Task object for the task at the specified index.
+     * Changing the returned task does not change the list.
+     *
+     * @param index Index of Task to return.
+     * @return The Task at the specified index.
+     */
+    @Override
+    public Task getTask(int index) {
+        int slot = this.slotOf(index);
+        String description = this.descriptionPool.intern(this.arena, this.descriptionStarts[slot],
+                this.descriptionStarts[slot + 1]);
+
+        Task task;
+        switch (this.types[slot]) {
+        case DEADLINE:
+            task = new Deadline(description, PackedTaskList.toDateTime(this.startMinutes[slot]));
+            break;
+
+        case EVENT:
+            task = new Event(description, PackedTaskList.toDateTime(this.startMinutes[slot]),
+                    PackedTaskList.toDateTime(this.endMinutes[slot]));
+            break;
+
+        default:
+            task = new Todo(description);
+        }
+        task.setDone(this.doneFlags[slot]);
+        return task;
+    }
+
+    @Override
+    public int getTaskNumber(int index) {
+        return this.taskIds[this.slotOf(index)] + 1;
+    }
+
+    @Override
+    public int indexOfTaskNumber(int taskNumber) {
+        int slot = Arrays.binarySearch(this.taskIds, 0, this.slotCount, taskNumber - 1);
+        if ((slot < 0) || (this.types[slot] == DELETED)) {
+            return -1;
+        }
+        return (this.slotCount == this.taskCount) ? slot : this.filledSlots.prefixSum(slot);
+    }
+
+    @Override
+    public int getNextTaskNumber() {
+        return this.nextTaskId + 1;
+    }
+
+    @Override
+    public void skipTaskNumbers(int count) {
+        this.nextTaskId += count;
+    }
+
+    @Override
+    public Task deleteTask(int taskNumber) {
+        if ((taskNumber <= 0) || (taskNumber > this.taskCount)) {
+            return null;
+        }
+
+        Task deletedTask = this.getTask(taskNumber - 1);
+        int slot = this.slotOf(taskNumber - 1);
+        this.types[slot] = DELETED;
+        this.filledSlots.add(slot, -1);
+        this.taskCount--;
+        return deletedTask;
+    }
+
+    @Override
+    public Task changeTaskStatus(int taskNumber, boolean isDone) {
+        if ((taskNumber <= 0) || (taskNumber > this.taskCount)) {
+            return null;
+        }
+
+        this.doneFlags[this.slotOf(taskNumber - 1)] = isDone;
+        return this.getTask(taskNumber - 1);
+    }
+
+    /**
+     * Returns the indexes of the tasks whose description contains a keyword.
+     * Descriptions are matched as UTF-8 bytes in the arena, without creating any task.
+     * A UTF-8 sequence cannot start part way through another character, so byte matches are string matches.
+     */
+    @Override
+    protected int[] findTasks(String keyword) {
+        byte[] keywordBytes = keyword.getBytes(StandardCharsets.UTF_8);
+        return this.scanSlots(slot -> PackedTaskList.contains(this.arena, this.descriptionStarts[slot],
+                this.descriptionStarts[slot + 1], keywordBytes));
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due from one date/time to another, by comparing packed times.
+     */
+    @Override
+    protected int[] findDeadlines(LocalDateTime from, LocalDateTime to) {
+        long fromSeconds = (from != null) ? PackedTaskList.toSeconds(from) : Long.MIN_VALUE;
+        long toSeconds = PackedTaskList.toSeconds(to);
+        return this.scanSlots(slot -> (this.types[slot] == DEADLINE)
+                && (this.startMinutes[slot] * 60 >= fromSeconds) && (this.startMinutes[slot] * 60 <= toSeconds));
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due strictly before a date/time, by comparing packed times.
+     */
+    @Override
+    protected int[] findDeadlinesBefore(LocalDateTime before) {
+        long beforeSeconds = PackedTaskList.toSeconds(before);
+        return this.scanSlots(slot -> (this.types[slot] == DEADLINE) && (this.startMinutes[slot] * 60 < beforeSeconds));
+    }
+
+    /**
+     * Returns the indexes of the event tasks overlapping a period, by comparing packed times.
+     */
+    @Override
+    protected int[] findEvents(LocalDateTime from, LocalDateTime to) {
+        long fromSeconds = PackedTaskList.toSeconds(from);
+        long toSeconds = PackedTaskList.toSeconds(to);
+        return this.scanSlots(slot -> (this.types[slot] == EVENT)
+                && (this.endMinutes[slot] * 60 >= fromSeconds) && (this.startMinutes[slot] * 60 <= toSeconds));
+    }
+
+    /**
+     * Returns the indexes of the tasks whose slots meet a condition, in ascending order.
+     */
+    private int[] scanSlots(IntPredicate condition) {
+        int[] matchingIndexes = new int[this.taskCount];
+        int matchCount = 0;
+        int index = 0;
+
+        for (int slot = 0; slot < this.slotCount; slot++) {
+            if (this.types[slot] == DELETED) {
+                continue;
+            }
+            if (condition.test(slot)) {
+                matchingIndexes[matchCount++] = index;
+            }
+            index++;
+        }
+        return Arrays.copyOf(matchingIndexes, matchCount);
+    }
+
+    /**
+     * Returns true if the bytes from start to end contain a keyword.
+     */
+    private static boolean contains(byte[] bytes, int start, int end, byte[] keyword) {
+        if (keyword.length == 0) {
+            return true;
+        }
+
+        byte first = keyword[0];
+        for (int i = start; i <= end - keyword.length; i++) {
+            if (bytes[i] != first) {
+                continue;
+            }
+            int matched = 1;
+            while ((matched < keyword.length) && (bytes[i + matched] == keyword[matched])) {
+                matched++;
+            }
+            if (matched == keyword.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the slot of a position, which is the same when no slot is empty.
+     */
+    private int slotOf(int index) {
+        if ((index < 0) || (index >= this.taskCount)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.taskCount);
+        }
+        return (this.slotCount == this.taskCount) ? index : this.filledSlots.findKth(index + 1);
+    }
+
+    /**
+     * Moves every task to the front of new arrays with room for as many tasks again,
+     * dropping the descriptions of deleted tasks from the arena.
+     */
+    private void compact() {
+        int capacity = Math.max(MIN_CAPACITY, this.taskCount * 2);
+        byte[] compactedTypes = new byte[capacity];
+        boolean[] compactedDoneFlags = new boolean[capacity];
+        long[] compactedStartMinutes = new long[capacity];
+        long[] compactedEndMinutes = new long[capacity];
+        int[] compactedTaskIds = new int[capacity];
+        int[] compactedDescriptionStarts = new int[capacity + 1];
+
+        int filledCount = 0;
+        int arenaEnd = 0;
+        for (int slot = 0; slot < this.slotCount; slot++) {
+            if (this.types[slot] == DELETED) {
+                continue;
+            }
+            compactedTypes[filledCount] = this.types[slot];
+            compactedDoneFlags[filledCount] = this.doneFlags[slot];
+            compactedStartMinutes[filledCount] = this.startMinutes[slot];
+            compactedEndMinutes[filledCount] = this.endMinutes[slot];
+            compactedTaskIds[filledCount] = this.taskIds[slot];
+
+            // Descriptions only move towards the start of the arena, so they can be moved in place
+            int descriptionLength = this.descriptionStarts[slot + 1] - this.descriptionStarts[slot];
+            System.arraycopy(this.arena, this.descriptionStarts[slot], this.arena, arenaEnd, descriptionLength);
+            compactedDescriptionStarts[filledCount] = arenaEnd;
+            arenaEnd += descriptionLength;
+            filledCount++;
+        }
+        compactedDescriptionStarts[filledCount] = arenaEnd;
+
+        this.types = compactedTypes;
+        this.doneFlags = compactedDoneFlags;
+        this.startMinutes = compactedStartMinutes;
+        this.endMinutes = compactedEndMinutes;
+        this.taskIds = compactedTaskIds;
+        this.descriptionStarts = compactedDescriptionStarts;
+        this.filledSlots = new FenwickTree(capacity, filledCount);
+        this.slotCount = filledCount;
+    }
+
+    private static long toMinutes(LocalDateTime dateTime) {
+        return Math.floorDiv(PackedTaskList.toSeconds(dateTime), 60);
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+}
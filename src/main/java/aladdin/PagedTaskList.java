@@ -0,0 +1,421 @@
+package aladdin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents a list of tasks backed by a text storage file, whose tasks are only read when needed.
+ * The file is divided into pages of tasks, and only a bounded number of recently used pages are kept,
+ * so startup time and memory stay flat as the file grows. Changes are kept in memory on top of the file.
+ * A task in the file keeps the task number it was saved with, and added tasks are numbered after them.
+ */
+public class PagedTaskList extends TaskList {
+    /** Default number of pages kept in memory */
+    public static final int DEFAULT_CACHE_PAGES = 64;
+
+    /** Number of tasks in a page */
+    private static final int PAGE_SIZE = 256;
+    /** Size of the buffer used when scanning the storage file */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /** Maximum number of pages kept in memory */
+    private final int maxCachedPages;
+    /** Pool the descriptions of the tasks read are shared through, as pages are read again once dropped */
+    private final DescriptionPool descriptionPool = new DescriptionPool(DescriptionPool.DEFAULT_CAPACITY);
+    /** Recently used pages, from least to most recently used */
+    private final LinkedHashMap<Integer, Task[]> pageCache;
+    /** Channel for reading pages from the storage file, or null if not backed by a file */
+    private FileChannel channel;
+    /** Position of the first record of each page, followed by the end of the last page */
+    private long[] pageOffsets = new long[] {0};
+    /** Number of tasks in the storage file */
+    private int fileTaskCount;
+    /** Number of tasks in the storage file that are not deleted */
+    private int liveFileTaskCount;
+    /** Tasks in the storage file that are not deleted, created on first delete */
+    private FenwickTree liveFileTasks;
+    /** Changed done status of tasks in the storage file, by their position in the file */
+    private final TreeMap<Integer, Boolean> doneChanges = new TreeMap<>();
+    /** Task number of each task in the storage file, or null if it is the task's position in the file + 1 */
+    private int[] fileTaskNumbers;
+    /** Tasks added after the tasks in the storage file, with their ids */
+    private TaskSlots addedTasks = new TaskSlots();
+    /** Task number of the first task added, to which each added task's id is added */
+    private int firstAddedTaskNumber = 1;
+    /** Whether this is a frozen copy, which reads the storage file of the list it copies but never closes it */
+    private boolean isFrozen;
+
+    /**
+     * Creates a PagedTaskList instance, not yet backed by a storage file.
+     *
+     * @param maxCachedPages Maximum number of pages of tasks kept in memory.
+     */
+    public PagedTaskList(int maxCachedPages) {
+        this.maxCachedPages = Math.max(1, maxCachedPages);
+        this.pageCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+                return this.size() > PagedTaskList.this.maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Backs the list with a text storage file, scanning where each page starts without deserialising any task.
+     * Scanning stops at the first corrupted line, so only the tasks before it are in the list.
+     *
+     * @param path Path of the storage file.
+     * @return Number of lines skipped from the first corrupted line to the end of the file,
+     *     or -1 if the file cannot be paged, as it has lines written without checksums.
+     * @throws IOException If the storage file cannot be read.
+     */
+    public long open(Path path) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        long[] offsets = new long[16];
+        int taskCount = 0;
+        long skippedCount = 0;
+        // Task numbers are only kept once a tombstone leaves a gap, otherwise they are positions + 1
+        int[] taskNumbers = null;
+        int nextTaskNumber = 1;
+
+        try {
+            long fileSize = fileChannel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long bufferOffset = 0;
+            long lastLineEnd = 0;
+
+            scan:
+            while (bufferOffset < fileSize) {
+                buffer.clear();
+                fileChannel.read(buffer, bufferOffset);
+                buffer.flip();
+                boolean isLastBuffer = (bufferOffset + buffer.limit() >= fileSize);
+
+                int lineStart = 0;
+                while (lineStart < buffer.limit()) {
+                    int lineEnd = lineStart;
+                    while ((lineEnd < buffer.limit()) && (buffer.get(lineEnd) != '\n')) {
+                        lineEnd++;
+                    }
+                    if ((lineEnd == buffer.limit()) && !isLastBuffer) {
+                        // Line continues in the next buffer
+                        break;
+                    }
+
+                    int recordEnd = lineEnd;
+                    if ((recordEnd > lineStart) && (buffer.get(recordEnd - 1) == '\r')) {
+                        recordEnd--;
+                    }
+                    if (recordEnd > lineStart) {
+                        if (!RecordChecksum.hasChecksum(buffer, lineStart, recordEnd)) {
+                            fileChannel.close();
+                            return -1;
+                        }
+                        int end = RecordChecksum.strip(buffer, lineStart, recordEnd, true);
+                        if (end < 0) {
+                            long corruptedLineStart = bufferOffset + lineStart;
+                            skippedCount = TaskFileReader.countLines(fileChannel, corruptedLineStart, fileSize);
+                            break scan;
+                        }
+                        if (!SnapshotIndex.isTombstone(buffer, lineStart, end)) {
+                            if (taskCount % PAGE_SIZE == 0) {
+                                offsets = PagedTaskList.addOffset(offsets, taskCount / PAGE_SIZE,
+                                        bufferOffset + lineStart);
+                            }
+                            if (taskNumbers != null) {
+                                taskNumbers = PagedTaskList.addTaskNumber(taskNumbers, taskCount, nextTaskNumber);
+                            }
+                            taskCount++;
+                            nextTaskNumber++;
+                        } else {
+                            if (taskNumbers == null) {
+                                taskNumbers = new int[Math.max(16, taskCount * 2)];
+                                Arrays.setAll(taskNumbers, i -> i + 1);
+                            }
+                            nextTaskNumber += SnapshotIndex.countTaskNumbers(buffer, lineStart, end);
+                        }
+                    }
+                    lineStart = lineEnd + 1;
+                    lastLineEnd = bufferOffset + Math.min(lineStart, buffer.limit());
+                }
+
+                if ((lineStart == 0) && !isLastBuffer) {
+                    // Line longer than the buffer
+                    fileChannel.close();
+                    return -1;
+                }
+                bufferOffset += lineStart;
+            }
+
+            int pageCount = (taskCount + PAGE_SIZE - 1) / PAGE_SIZE;
+            offsets = PagedTaskList.addOffset(offsets, pageCount, lastLineEnd);
+            this.pageOffsets = Arrays.copyOf(offsets, pageCount + 1);
+
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+
+        this.close();
+        this.channel = fileChannel;
+        this.fileTaskCount = taskCount;
+        this.liveFileTaskCount = taskCount;
+        this.liveFileTasks = null;
+        this.doneChanges.clear();
+        boolean hasGaps = (taskNumbers != null) && (taskCount > 0) && (taskNumbers[taskCount - 1] != taskCount);
+        this.fileTaskNumbers = hasGaps ? Arrays.copyOf(taskNumbers, taskCount) : null;
+        this.addedTasks = new TaskSlots();
+        this.firstAddedTaskNumber = nextTaskNumber;
+        this.pageCache.clear();
+        return skippedCount;
+    }
+
+    /**
+     * Returns a frozen copy of the list, which another thread can read while this list keeps changing,
+     * such as to save it in the background. The copy reads the same storage file, so it must not be read
+     * once this list is closed, and its own changes in memory are copied rather than shared.
+     *
+     * @return The frozen copy.
+     */
+    public PagedTaskList freeze() {
+        PagedTaskList copy = new PagedTaskList(this.maxCachedPages);
+        copy.isFrozen = true;
+        copy.channel = this.channel;
+        copy.pageOffsets = this.pageOffsets;
+        copy.fileTaskCount = this.fileTaskCount;
+        copy.liveFileTaskCount = this.liveFileTaskCount;
+        copy.liveFileTasks = (this.liveFileTasks != null) ? new FenwickTree(this.liveFileTasks) : null;
+        copy.doneChanges.putAll(this.doneChanges);
+        copy.fileTaskNumbers = this.fileTaskNumbers;
+        copy.addedTasks = this.addedTasks.copy();
+        copy.firstAddedTaskNumber = this.firstAddedTaskNumber;
+        return copy;
+    }
+
+    private static long[] addOffset(long[] offsets, int index, long offset) {
+        long[] result = (index < offsets.length) ? offsets : Arrays.copyOf(offsets, offsets.length * 2);
+        result[index] = offset;
+        return result;
+    }
+
+    private static int[] addTaskNumber(int[] taskNumbers, int index, int taskNumber) {
+        int[] result = (index < taskNumbers.length) ? taskNumbers : Arrays.copyOf(taskNumbers, taskNumbers.length * 2);
+        result[index] = taskNumber;
+        return result;
+    }
+
+    /**
+     * Closes the storage file backing the list.
+     * Tasks in the file are no longer readable, so this is only called once the list is no longer used.
+     *
+     * @throws IOException If the storage file cannot be closed.
+     */
+    public void close() throws IOException {
+        if ((this.channel != null) && !this.isFrozen) {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return this.liveFileTaskCount + this.addedTasks.getSize();
+    }
+
+    @Override
+    public void addToTaskList(Task t) {
+        this.addedTasks.add(t);
+    }
+
+    @Override
+    public int getNextTaskNumber() {
+        return this.firstAddedTaskNumber + this.addedTasks.getNextTaskId();
+    }
+
+    @Override
+    public void skipTaskNumbers(int count) {
+        this.addedTasks.skipIds(count);
+    }
+
+    @Override
+    public Task getTask(int index) {
+        if ((index < 0) || (index >= this.getSize())) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.getSize());
+        }
+        if (index >= this.liveFileTaskCount) {
+            return this.addedTasks.get(index - this.liveFileTaskCount);
+        }
+
+        int position = this.getFilePosition(index);
+        return this.getPage(position / PAGE_SIZE)[position % PAGE_SIZE];
+    }
+
+    @Override
+    public int getTaskNumber(int index) {
+        if ((index < 0) || (index >= this.getSize())) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.getSize());
+        }
+        if (index >= this.liveFileTaskCount) {
+            return this.firstAddedTaskNumber + this.addedTasks.getTaskId(index - this.liveFileTaskCount);
+        }
+
+        int position = this.getFilePosition(index);
+        return (this.fileTaskNumbers == null) ? position + 1 : this.fileTaskNumbers[position];
+    }
+
+    @Override
+    public int indexOfTaskNumber(int taskNumber) {
+        if (taskNumber >= this.firstAddedTaskNumber) {
+            int addedIndex = this.addedTasks.indexOf(taskNumber - this.firstAddedTaskNumber);
+            return (addedIndex < 0) ? -1 : this.liveFileTaskCount + addedIndex;
+        }
+
+        int position = (this.fileTaskNumbers == null)
+                ? taskNumber - 1
+                : Arrays.binarySearch(this.fileTaskNumbers, taskNumber);
+        if ((position < 0) || (position >= this.fileTaskCount)) {
+            return -1;
+        }
+        if (this.liveFileTasks == null) {
+            return position;
+        }
+        int index = this.liveFileTasks.prefixSum(position);
+        // Deleted if its position is not counted as a live task
+        return (this.liveFileTasks.prefixSum(position + 1) > index) ? index : -1;
+    }
+
+    @Override
+    public Task deleteTask(int taskNumber) {
+        if ((taskNumber <= 0) || (taskNumber > this.getSize())) {
+            return null;
+        }
+        if (taskNumber > this.liveFileTaskCount) {
+            return this.addedTasks.remove(taskNumber - this.liveFileTaskCount - 1);
+        }
+
+        Task deletedTask = this.getTask(taskNumber - 1);
+        if (this.liveFileTasks == null) {
+            this.liveFileTasks = new FenwickTree(this.fileTaskCount, this.fileTaskCount);
+        }
+        int position = this.getFilePosition(taskNumber - 1);
+        this.liveFileTasks.add(position, -1);
+        this.doneChanges.remove(position);
+        this.liveFileTaskCount--;
+        return deletedTask;
+    }
+
+    @Override
+    public Task changeTaskStatus(int taskNumber, boolean isDone) {
+        if ((taskNumber <= 0) || (taskNumber > this.getSize())) {
+            return null;
+        }
+
+        Task task = this.getTask(taskNumber - 1);
+        task.setDone(isDone);
+        if (taskNumber <= this.liveFileTaskCount) {
+            // Kept separately, as the page holding the task may be dropped from memory
+            this.doneChanges.put(this.getFilePosition(taskNumber - 1), isDone);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the indexes of the tasks whose description contains a keyword.
+     * Tasks are not all in memory, so every task is checked instead of using the word index.
+     */
+    @Override
+    protected int[] findTasks(String keyword) {
+        return this.scanTasks(keyword);
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due from one date/time to another.
+     * Tasks are not all in memory, so every task is checked instead of using the time index.
+     */
+    @Override
+    protected int[] findDeadlines(LocalDateTime from, LocalDateTime to) {
+        return this.scanTasks(task -> TimeIndex.isDeadlineDue(task, from, to));
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due strictly before a date/time.
+     * Tasks are not all in memory, so every task is checked instead of using the time index.
+     */
+    @Override
+    protected int[] findDeadlinesBefore(LocalDateTime before) {
+        return this.scanTasks(task -> TimeIndex.isDeadlineDueBefore(task, before));
+    }
+
+    /**
+     * Returns the indexes of the event tasks overlapping a period.
+     * Tasks are not all in memory, so every task is checked instead of using the time index.
+     */
+    @Override
+    protected int[] findEvents(LocalDateTime from, LocalDateTime to) {
+        return this.scanTasks(task -> TimeIndex.isEventOverlapping(task, from, to));
+    }
+
+    /**
+     * Returns the position in the storage file of a task that is in the file.
+     */
+    private int getFilePosition(int index) {
+        return (this.liveFileTasks == null) ? index : this.liveFileTasks.findKth(index + 1);
+    }
+
+    /**
+     * Returns a page of tasks, reading it from the storage file if it is not in memory.
+     */
+    private Task[] getPage(int pageNumber) {
+        Task[] page = this.pageCache.get(pageNumber);
+        if (page != null) {
+            return page;
+        }
+
+        int firstPosition = pageNumber * PAGE_SIZE;
+        page = new Task[Math.min(PAGE_SIZE, this.fileTaskCount - firstPosition)];
+        this.readPage(pageNumber, page);
+
+        for (Map.Entry<Integer, Boolean> change
+                : this.doneChanges.subMap(firstPosition, firstPosition + page.length).entrySet()) {
+            page[change.getKey() - firstPosition].setDone(change.getValue());
+        }
+        this.pageCache.put(pageNumber, page);
+        return page;
+    }
+
+    private void readPage(int pageNumber, Task[] page) {
+        long start = this.pageOffsets[pageNumber];
+        ByteBuffer buffer = ByteBuffer.allocate((int) (this.pageOffsets[pageNumber + 1] - start));
+
+        try {
+            while (buffer.hasRemaining()) {
+                if (this.channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading tasks from storage file", e);
+        }
+
+        List<Task> tasks = new ArrayList<>(page.length);
+        // Task numbers of the page were found when the file was opened
+        new TaskFileReader(this.descriptionPool).readLines(buffer, 0, buffer.position(), tasks::add, count -> { });
+        if (tasks.size() != page.length) {
+            throw new IllegalStateException("Storage file changed while its tasks were paged");
+        }
+        tasks.toArray(page);
+    }
+
+}
@@ -6,232 +6,295 @@ import java.time.format.DateTimeParseException;
 // Solution below inspired by AB2. https://github.com/se-edu/addressbook-level2
 /**
  * Represents a Parser to make sense of user commands for Aladdin.
+ * The input is scanned by index instead of split into substrings, and a valid command is parsed without
+ * throwing any exception, so each command costs little more than the values it carries.
  */
 public class Parser {
-    /**
-     * Enumeration for Commands
-     */
-    private enum Command { LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND }
+    /** Every type of command, cached as values() copies the array on each call */
+    private static final Command.Type[] COMMAND_TYPES = Command.Type.values();
 
     /**
-     * Returns the formatted user command as an array of substrings.
+     * Returns the parsed user command.
      *
      * @param userInput The user's input to parse.
-     * @return A string array containing substrings of formatted user command.
+     * @return The command, with its task numbers and date/times parsed.
      * @throws AladdinException If user command is invalid.
      */
-    public static String[] parseUserCommand(String userInput) throws AladdinException {
-        String[] userInputArray = userInput.split(" ", 2);
+    public static Command parseUserCommand(String userInput) throws AladdinException {
+        int commandEnd = userInput.indexOf(' ');
+        boolean hasDescription = commandEnd >= 0;
+        if (!hasDescription) {
+            commandEnd = userInput.length();
+        }
 
-        try {
-            // throws IllegalArgumentException if command does not match (or empty command)
-            Command mainCommand = Command.valueOf(userInputArray[0].toUpperCase());
+        Command.Type mainCommand = Parser.findCommandType(userInput, commandEnd);
+        if (mainCommand == null) {
+            throw new AladdinException("Invalid command.");
+        }
 
-            // Only list command can have 1 substring. All other commands have at least 2 substrings
-            if ((userInputArray.length != 2) && (mainCommand != Command.LIST)) {
-                throw new AladdinException("Invalid command. Please enter full command.");
-            }
+        // Only list and bulk commands can have 1 substring. All other commands have at least 2 substrings
+        if (!hasDescription && (mainCommand != Command.Type.LIST) && (mainCommand != Command.Type.BULK)) {
+            throw new AladdinException("Invalid command. Please enter full command.");
+        }
+        String commandDescription = hasDescription ? userInput.substring(commandEnd + 1) : null;
 
-            String[] formattedUserCommand = null;
+        switch (mainCommand) {
+        case LIST:
+            return Parser.parseList(commandDescription);
 
-            switch (mainCommand) {
-            case LIST:
-                formattedUserCommand = Parser.formatList();
-                break;
+        case MARK:
+        case UNMARK:
+        case DELETE:
+            return Parser.parseTaskNumbers(mainCommand, commandDescription);
 
-            case MARK:
-                formattedUserCommand = Parser.formatMark(userInputArray[1]);
-                break;
+        case TODO:
+            return Parser.parseTodo(commandDescription);
 
-            case UNMARK:
-                formattedUserCommand = Parser.formatUnmark(userInputArray[1]);
-                break;
+        case DEADLINE:
+            return Parser.parseDeadline(commandDescription);
 
-            case DELETE:
-                formattedUserCommand = Parser.formatDelete(userInputArray[1]);
-                break;
+        case EVENT:
+            return Parser.parseEvent(commandDescription);
 
-            case TODO:
-                formattedUserCommand = Parser.formatTodo(userInputArray[1]);
-                break;
+        case FIND:
+            return Command.find(commandDescription);
 
-            case DEADLINE:
-                formattedUserCommand = Parser.formatDeadline(userInputArray[1]);
-                break;
+        case BEFORE:
+            return Parser.parseBefore(commandDescription);
 
-            case EVENT:
-                formattedUserCommand = Parser.formatEvent(userInputArray[1]);
-                break;
+        case BETWEEN:
+            return Parser.parseDateRange(Command.Type.BETWEEN, commandDescription, " /and ",
+                    "Invalid between format. Please specify {date/time} /and {date/time}.");
 
-            case FIND:
-                formattedUserCommand = Parser.formatFind(userInputArray[1]);
-                break;
-            }
-            return formattedUserCommand;
+        case OVERLAP:
+            return Parser.parseDateRange(Command.Type.OVERLAP, commandDescription, " /to ",
+                    "Invalid overlap format. Please specify {date/time} /to {date/time}.");
 
-        } catch (IllegalArgumentException e) {
-            throw new AladdinException("Invalid command.");
+        default: // Command.Type.BULK
+            return Command.bulk();
         }
     }
 
-    private static String[] formatList() {
-        String[] formattedListCommand = new String[1];
-        formattedListCommand[0] = "LIST";
-        return formattedListCommand;
+    /**
+     * Returns the type of command named by the start of the user input, ignoring case, or null if there is none.
+     */
+    private static Command.Type findCommandType(String userInput, int commandEnd) {
+        for (Command.Type type : COMMAND_TYPES) {
+            String name = type.name();
+            if ((name.length() == commandEnd) && userInput.regionMatches(true, 0, name, 0, commandEnd)) {
+                return type;
+            }
+        }
+        return null;
     }
 
-    private static String[] formatMark(String commandDescription) throws AladdinException {
-        String[] formattedMarkCommand = new String[2];
-        formattedMarkCommand[0] = "MARK";
+    /**
+     * Returns a list command, which lists every task unless it is given a number of tasks in each page or "next".
+     * Any other text after list is ignored, as it was before lists could be paged.
+     */
+    private static Command parseList(String commandDescription) throws AladdinException {
+        if (commandDescription == null) {
+            return Command.list();
+        }
+
+        if (commandDescription.equalsIgnoreCase("next")) {
+            return Command.listNextPage();
+        }
 
         try {
-            int taskNumber = Integer.parseInt(commandDescription);
-            formattedMarkCommand[1] = Integer.toString(taskNumber);
+            int pageSize = Parser.parseInt(commandDescription, 0, commandDescription.length());
+            if (pageSize <= 0) {
+                throw new AladdinException("Number of tasks to list must be positive.");
+            }
+            return Command.listPage(pageSize);
 
         } catch (NumberFormatException e) {
-            throw new AladdinException("Task Number must be integer: " + e.getMessage());
+            return Command.list();
         }
-
-        return formattedMarkCommand;
     }
 
-    private static String[] formatUnmark(String commandDescription) throws AladdinException {
-        String[] formattedUnmarkCommand = new String[2];
-        formattedUnmarkCommand[0] = "UNMARK";
+    /**
+     * Returns a mark, unmark or delete command with its task numbers.
+     * Task numbers are separated by commas, and each can be a range of task numbers such as 1-500.
+     * A '-' at the start of a task number is a minus sign instead.
+     */
+    private static Command parseTaskNumbers(Command.Type command, String commandDescription)
+            throws AladdinException {
+        int partCount = 1;
+        for (int i = 0; i < commandDescription.length(); i++) {
+            if (commandDescription.charAt(i) == ',') {
+                partCount++;
+            }
+        }
+
+        int[] taskNumberRanges = new int[partCount * 2];
+        boolean isSingleTaskNumber = partCount == 1;
+        int partStart = 0;
 
         try {
-            int taskNumber = Integer.parseInt(commandDescription);
-            formattedUnmarkCommand[1] = Integer.toString(taskNumber);
+            for (int i = 0; i < partCount; i++) {
+                int partEnd = commandDescription.indexOf(',', partStart);
+                if (partEnd < 0) {
+                    partEnd = commandDescription.length();
+                }
+
+                int rangeSeparatorIndex = commandDescription.indexOf('-', partStart + 1);
+                if ((rangeSeparatorIndex < 0) || (rangeSeparatorIndex >= partEnd)) {
+                    int taskNumber = Parser.parseInt(commandDescription, partStart, partEnd);
+                    taskNumberRanges[i * 2] = taskNumber;
+                    taskNumberRanges[i * 2 + 1] = taskNumber;
+
+                } else {
+                    int start = Parser.parseInt(commandDescription, partStart, rangeSeparatorIndex);
+                    int end = Parser.parseInt(commandDescription, rangeSeparatorIndex + 1, partEnd);
+                    if (start > end) {
+                        throw new AladdinException("Invalid Task Number range: "
+                                + commandDescription.substring(partStart, partEnd) + ". Start must not be after end.");
+                    }
+                    taskNumberRanges[i * 2] = start;
+                    taskNumberRanges[i * 2 + 1] = end;
+                    isSingleTaskNumber = false;
+                }
+                partStart = partEnd + 1;
+            }
 
         } catch (NumberFormatException e) {
             throw new AladdinException("Task Number must be integer: " + e.getMessage());
         }
 
-        return formattedUnmarkCommand;
+        return Command.taskNumbers(command, taskNumberRanges, isSingleTaskNumber);
     }
 
-    private static String[] formatDelete(String commandDescription) throws AladdinException {
-        String[] formattedDeleteCommand = new String[2];
-        formattedDeleteCommand[0] = "DELETE";
-
+    /**
+     * Returns the integer in part of a string, without creating a substring unless it is not an integer.
+     *
+     * @throws NumberFormatException If that part is not an integer, with the same message as Integer.parseInt.
+     */
+    private static int parseInt(String text, int start, int end) throws NumberFormatException {
         try {
-            int taskNumber = Integer.parseInt(commandDescription);
-            formattedDeleteCommand[1] = Integer.toString(taskNumber);
+            return Integer.parseInt(text, start, end, 10);
 
         } catch (NumberFormatException e) {
-            throw new AladdinException("Task Number must be integer: " + e.getMessage());
+            // Parsed again only to throw the message that parsing the substring gives
+            return Integer.parseInt(text.substring(start, end));
         }
-
-        return formattedDeleteCommand;
     }
 
-    private static String[] formatTodo(String commandDescription) throws AladdinException {
-        String[] formattedTodoCommand = new String[2];
-        formattedTodoCommand[0] = "TODO";
-
+    private static Command parseTodo(String commandDescription) throws AladdinException {
         // Check if description is empty, null, or whitespaces only
         if (commandDescription.isBlank()) {
             throw new AladdinException("Invalid Todo Description. Cannot be empty/blank.");
 
-        } else if (commandDescription.contains("|")) {
+        } else if (commandDescription.indexOf('|') >= 0) {
             throw new AladdinException("Invalid Todo Description. Cannot Contain '|'.");
-
-        } else {
-            formattedTodoCommand[1] = commandDescription;
         }
 
-        return formattedTodoCommand;
+        return Command.todo(commandDescription);
     }
 
-    private static String[] formatDeadline(String commandDescription) throws AladdinException {
-        String[] formattedDeadlineCommand = new String[3];
-        formattedDeadlineCommand[0] = "DEADLINE";
-
-        // Split into max 2 substrings
-        String[] commandDescriptionArray = commandDescription.split(" /by ", 2);
-
-        if (commandDescriptionArray.length != 2) {
+    private static Command parseDeadline(String commandDescription) throws AladdinException {
+        int separatorIndex = commandDescription.indexOf(" /by ");
+        if (separatorIndex < 0) {
             throw new AladdinException("Invalid deadline format. "
                     + "Please specify {description} /by {date/time}.");
         }
 
+        String description = commandDescription.substring(0, separatorIndex);
         // Check if description is empty, null, or whitespaces only
-        if (commandDescriptionArray[0].isBlank()) {
+        if (description.isBlank()) {
             throw new AladdinException("Invalid Deadline Description. Cannot be empty/blank.");
 
-        } else if (commandDescriptionArray[0].contains("|")) {
+        } else if (description.indexOf('|') >= 0) {
             throw new AladdinException("Invalid Deadline Description. Cannot Contain '|'.");
         }
-        formattedDeadlineCommand[1] = commandDescriptionArray[0];
 
         try {
-            LocalDateTime byDate = LocalDateTime.parse(commandDescriptionArray[1], Aladdin.DATE_TIME_STORE);
-            formattedDeadlineCommand[2] = byDate.format(Aladdin.DATE_TIME_STORE);
+            LocalDateTime byDate = DateTimeCodec.parse(commandDescription, separatorIndex + " /by ".length(),
+                    commandDescription.length());
+            return Command.deadline(description, byDate);
 
         } catch (DateTimeParseException e) {
             throw new AladdinException("Invalid Deadline 'by' Date. "
                     + "Please enter in d-M-yyyy HHmm format." + System.lineSeparator()
                     + e.getMessage());
         }
-
-        return formattedDeadlineCommand;
     }
 
-    private static String[] formatEvent(String commandDescription) throws AladdinException {
-        String[] formattedEventCommand = new String[4];
-        formattedEventCommand[0] = "EVENT";
-
+    private static Command parseEvent(String commandDescription) throws AladdinException {
         String eventFormatError = "Invalid event format. "
                 + "Please specify {description} /from {date/time} /to {date/time}.";
 
-        // Split string by "/from"
-        String[] commandDescriptionArray1 = commandDescription.split(" /from ", 2);
-        if (commandDescriptionArray1.length != 2) {
+        // Find "/from", then "/to" after it
+        int fromSeparatorIndex = commandDescription.indexOf(" /from ");
+        if (fromSeparatorIndex < 0) {
             throw new AladdinException(eventFormatError);
         }
-
-        // Split string by "/to"
-        String[] commandDescriptionArray2 = commandDescriptionArray1[1].split(" /to ", 2);
-        if (commandDescriptionArray2.length != 2) {
+        int fromStart = fromSeparatorIndex + " /from ".length();
+        int toSeparatorIndex = commandDescription.indexOf(" /to ", fromStart);
+        if (toSeparatorIndex < 0) {
             throw new AladdinException(eventFormatError);
         }
 
+        String description = commandDescription.substring(0, fromSeparatorIndex);
         // Check if description is empty, null, or whitespaces only
-        if (commandDescriptionArray1[0].isBlank()) {
+        if (description.isBlank()) {
             throw new AladdinException("Invalid Event Description. Cannot be empty/blank.");
 
-        } else if (commandDescriptionArray1[0].contains("|")) {
+        } else if (description.indexOf('|') >= 0) {
             throw new AladdinException("Invalid Event Description. Cannot Contain '|'.");
         }
-        formattedEventCommand[1] = commandDescriptionArray1[0];
 
         try {
-            LocalDateTime fromDate = LocalDateTime.parse(commandDescriptionArray2[0], Aladdin.DATE_TIME_STORE);
-            LocalDateTime toDate = LocalDateTime.parse(commandDescriptionArray2[1], Aladdin.DATE_TIME_STORE);
+            LocalDateTime fromDate = DateTimeCodec.parse(commandDescription, fromStart, toSeparatorIndex);
+            LocalDateTime toDate = DateTimeCodec.parse(commandDescription, toSeparatorIndex + " /to ".length(),
+                    commandDescription.length());
 
             // If fromDate is not before toDate (fromDate equal or after toDate)
             if (!fromDate.isBefore(toDate)) {
                 throw new AladdinException("Event 'from' must be before 'to' Date/Time.");
             }
-
-            formattedEventCommand[2] = fromDate.format(Aladdin.DATE_TIME_STORE);
-            formattedEventCommand[3] = toDate.format(Aladdin.DATE_TIME_STORE);
+            return Command.event(description, fromDate, toDate);
 
         } catch (DateTimeParseException e) {
             throw new AladdinException("Invalid Event 'from' and/or 'to' Date. "
                     + "Please enter in d-M-yyyy HHmm format." + System.lineSeparator()
                     + e.getMessage());
         }
+    }
 
-        return formattedEventCommand;
+    private static Command parseBefore(String commandDescription) throws AladdinException {
+        try {
+            return Command.before(DateTimeCodec.parse(commandDescription));
+
+        } catch (DateTimeParseException e) {
+            throw new AladdinException("Invalid Before Date. "
+                    + "Please enter in d-M-yyyy HHmm format." + System.lineSeparator()
+                    + e.getMessage());
+        }
     }
 
-    private static String[] formatFind(String commandDescription) {
-        String[] formattedFindCommand = new String[2];
-        formattedFindCommand[0] = "FIND";
-        formattedFindCommand[1] = commandDescription;
+    private static Command parseDateRange(Command.Type command, String commandDescription, String separator,
+            String formatError) throws AladdinException {
+        int separatorIndex = commandDescription.indexOf(separator);
+        if (separatorIndex < 0) {
+            throw new AladdinException(formatError);
+        }
+
+        try {
+            LocalDateTime fromDate = DateTimeCodec.parse(commandDescription, 0, separatorIndex);
+            LocalDateTime toDate = DateTimeCodec.parse(commandDescription, separatorIndex + separator.length(),
+                    commandDescription.length());
+
+            if (fromDate.isAfter(toDate)) {
+                throw new AladdinException("Start Date/Time must not be after end Date/Time.");
+            }
+            return Command.dateRange(command, fromDate, toDate);
 
-        return formattedFindCommand;
+        } catch (DateTimeParseException e) {
+            throw new AladdinException("Invalid start and/or end Date. "
+                    + "Please enter in d-M-yyyy HHmm format." + System.lineSeparator()
+                    + e.getMessage());
+        }
     }
 
 }
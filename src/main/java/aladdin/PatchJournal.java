@@ -0,0 +1,158 @@
+package aladdin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Represents a redo journal of patches to a storage file.
+ * The journal is fully written before any patch is applied, so a crash part way through patching
+ * is recovered by applying every patch again. Each patch writes bytes at a fixed position,
+ * so applying it more than once has the same result.
+ */
+public class PatchJournal {
+    /** Size of the buffer used when reading or writing */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Represents bytes written at a position of a file.
+     */
+    public static class Patch {
+        /** Position in the file of the first byte written */
+        protected final long offset;
+        /** Bytes written */
+        protected final byte[] bytes;
+
+        /**
+         * Creates a Patch instance.
+         *
+         * @param offset Position in the file of the first byte written.
+         * @param bytes Bytes written.
+         */
+        public Patch(long offset, byte[] bytes) {
+            this.offset = offset;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Writes patches to a new journal file, which is only moved into place once complete.
+     *
+     * @param journalPath Path of the journal file.
+     * @param patches Patches to write, in order.
+     * @param isSynced If the journal is forced to the storage device before it is moved into place, true.
+     * @throws IOException If the journal file cannot be written.
+     */
+    public static void write(Path journalPath, List<Patch> patches, boolean isSynced) throws IOException {
+        Path tempPath = PatchJournal.getTempPath(journalPath);
+        CRC32C crc = new CRC32C();
+
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempPath), BUFFER_SIZE), crc))) {
+            out.writeInt(patches.size());
+            for (Patch patch : patches) {
+                out.writeLong(patch.offset);
+                out.writeInt(patch.bytes.length);
+                out.write(patch.bytes);
+            }
+            // Checksum of the journal, to detect one that was not fully written
+            out.writeInt((int) crc.getValue());
+        }
+
+        if (isSynced) {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+        Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Applies every patch in a journal file to a file.
+     * A journal file that was not fully written is not applied.
+     *
+     * @param journalPath Path of the journal file.
+     * @param filePath Path of the file to patch.
+     * @param isSynced If the patches are forced to the storage device before returning, true.
+     * @return True if the patches were applied. Otherwise, false.
+     * @throws IOException If the journal file cannot be read, or the file cannot be patched.
+     */
+    public static boolean apply(Path journalPath, Path filePath, boolean isSynced) throws IOException {
+        List<Patch> patches = PatchJournal.read(journalPath);
+
+        if (patches != null) {
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+                for (Patch patch : patches) {
+                    ByteBuffer bytes = ByteBuffer.wrap(patch.bytes);
+                    long position = patch.offset;
+                    while (bytes.hasRemaining()) {
+                        position += channel.write(bytes, position);
+                    }
+                }
+                if (isSynced) {
+                    channel.force(false);
+                }
+            }
+        }
+        return patches != null;
+    }
+
+    /**
+     * Deletes a journal file that was still being written when the previous session ended.
+     *
+     * @param journalPath Path of the journal file.
+     * @throws IOException If the file cannot be deleted.
+     */
+    public static void discardIncomplete(Path journalPath) throws IOException {
+        Files.deleteIfExists(PatchJournal.getTempPath(journalPath));
+    }
+
+    /**
+     * Returns the patches in a journal file, or null if it was not fully written.
+     */
+    private static List<Patch> read(Path journalPath) throws IOException {
+        CRC32C crc = new CRC32C();
+        long journalSize = Files.size(journalPath);
+
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(journalPath), BUFFER_SIZE), crc))) {
+            int patchCount = in.readInt();
+            List<Patch> patches = new ArrayList<>();
+            for (int i = 0; i < patchCount; i++) {
+                long offset = in.readLong();
+                int length = in.readInt();
+                if ((offset < 0) || (length < 0) || (length > journalSize)) {
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                patches.add(new Patch(offset, bytes));
+            }
+
+            int expectedChecksum = (int) crc.getValue();
+            return (in.readInt() == expectedChecksum) ? patches : null;
+
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static Path getTempPath(Path journalPath) {
+        return journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+    }
+
+}
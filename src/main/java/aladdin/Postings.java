@@ -0,0 +1,78 @@
+package aladdin;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Represents a growable list of the ids of tasks containing a word or n-gram, in ascending order.
+ */
+public class Postings {
+    /** Task ids, where only the first size are used */
+    private int[] ids = new int[2];
+    /** Number of task ids */
+    private int size;
+
+    /**
+     * Adds a task id, which must not be less than any id already added.
+     * Adding the same id more than once in a row keeps only one.
+     *
+     * @param id Task id to add.
+     */
+    public void add(int id) {
+        if ((this.size > 0) && (this.ids[this.size - 1] == id)) {
+            // Word or n-gram appears more than once in the description
+            return;
+        }
+        if (this.size == this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, this.size * 2);
+        }
+        this.ids[this.size++] = id;
+    }
+
+    /**
+     * Getter for size.
+     *
+     * @return Number of task ids.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the task id at an index.
+     *
+     * @param index Index of the id (starts from 0).
+     * @return The task id.
+     */
+    public int get(int index) {
+        return this.ids[index];
+    }
+
+    /**
+     * Returns true if a task id is in the list.
+     *
+     * @param id Task id to look for.
+     * @return True if the id is in the list. Otherwise, false.
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+    }
+
+    /**
+     * Removes every task id that does not match a condition.
+     *
+     * @param isKept Condition of the ids kept.
+     * @return Number of ids left.
+     */
+    public int retain(IntPredicate isKept) {
+        int keptCount = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (isKept.test(this.ids[i])) {
+                this.ids[keptCount++] = this.ids[i];
+            }
+        }
+        this.size = keptCount;
+        return keptCount;
+    }
+
+}
@@ -0,0 +1,110 @@
+package aladdin;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Represents the checksum added to the end of each line of a text storage file or mutation log.
+ * A line with a checksum ends with "|#" and 8 hex digits of the CRC32C of the rest of the line.
+ * Lines without a checksum, written before checksums were added, are accepted as they are,
+ * until a line with a checksum is read. After that, a line without one must have been torn by a crash.
+ */
+public class RecordChecksum {
+    /** Separator between a record and its checksum */
+    private static final String CHECKSUM_SEPARATOR = "|#";
+    /** Number of hex digits in a checksum */
+    private static final int CHECKSUM_DIGITS = 8;
+    /** Length of the separator and checksum added to a record */
+    private static final int SUFFIX_LENGTH = CHECKSUM_SEPARATOR.length() + CHECKSUM_DIGITS;
+
+    /**
+     * Returns a record with its checksum appended.
+     *
+     * @param record Serialised record.
+     * @return The record followed by its checksum.
+     */
+    public static String append(String record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return record + CHECKSUM_SEPARATOR + RecordChecksum.toHex(crc.getValue());
+    }
+
+    /**
+     * Returns true if a line ends with a checksum.
+     *
+     * @param line Line that may end with a checksum.
+     * @return True if the line ends with a checksum. Otherwise, false.
+     */
+    public static boolean hasChecksum(String line) {
+        int suffixStart = line.length() - SUFFIX_LENGTH;
+        return (suffixStart >= 0) && line.startsWith(CHECKSUM_SEPARATOR, suffixStart);
+    }
+
+    /**
+     * Returns true if a line of a buffer ends with a checksum.
+     *
+     * @param buffer Buffer holding the line.
+     * @param start Index of the first byte of the line.
+     * @param end Index just after the last byte of the line.
+     * @return True if the line ends with a checksum. Otherwise, false.
+     */
+    public static boolean hasChecksum(ByteBuffer buffer, int start, int end) {
+        int suffixStart = end - SUFFIX_LENGTH;
+        return (suffixStart >= start) && (buffer.get(suffixStart) == '|') && (buffer.get(suffixStart + 1) == '#');
+    }
+
+    /**
+     * Returns the record in a line, after verifying its checksum.
+     *
+     * @param line Line that may end with a checksum.
+     * @param isRequired If a line without a checksum is corrupted, true. Otherwise, false.
+     * @return The record without its checksum, or null if the checksum is missing or does not match.
+     */
+    public static String strip(String line, boolean isRequired) {
+        if (!RecordChecksum.hasChecksum(line)) {
+            // Line written without a checksum
+            return isRequired ? null : line;
+        }
+
+        String record = line.substring(0, line.length() - SUFFIX_LENGTH);
+        CRC32C crc = new CRC32C();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return line.endsWith(RecordChecksum.toHex(crc.getValue())) ? record : null;
+    }
+
+    /**
+     * Returns the end of the record in a line of a buffer, after verifying its checksum.
+     *
+     * @param buffer Buffer holding the line.
+     * @param start Index of the first byte of the line.
+     * @param end Index just after the last byte of the line.
+     * @param isRequired If a line without a checksum is corrupted, true. Otherwise, false.
+     * @return Index just after the last byte of the record, or -1 if the checksum is missing or does not match.
+     */
+    public static int strip(ByteBuffer buffer, int start, int end, boolean isRequired) {
+        if (!RecordChecksum.hasChecksum(buffer, start, end)) {
+            // Line written without a checksum
+            return isRequired ? -1 : end;
+        }
+
+        int suffixStart = end - SUFFIX_LENGTH;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(suffixStart).position(start));
+        long checksum = crc.getValue();
+
+        for (int i = 0; i < CHECKSUM_DIGITS; i++) {
+            int digit = (int) (checksum >>> (4 * (CHECKSUM_DIGITS - 1 - i))) & 0xF;
+            if (buffer.get(end - CHECKSUM_DIGITS + i) != Character.forDigit(digit, 16)) {
+                return -1;
+            }
+        }
+        return suffixStart;
+    }
+
+    private static String toHex(long checksum) {
+        String hex = Long.toHexString(checksum);
+        return "0".repeat(CHECKSUM_DIGITS - hex.length()) + hex;
+    }
+
+}
@@ -0,0 +1,65 @@
+package aladdin;
+
+/**
+ * Represents a cache of the lines tasks are displayed as, so listing the same tasks again does not format them again.
+ * The cache is a fixed-size table where each task replaces whatever was in its slot, so its memory stays bounded.
+ * A line is only used while its task has the status it was rendered with,
+ * as the status is the only part of a task that changes.
+ * Lines are keyed by task identity, so a cache only helps a list that returns the same Task objects when read.
+ * Threads can share a cache without locking, as a slot only ever holds a whole, immutable entry.
+ */
+public class RenderCache {
+    /** Default number of lines kept */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /** Line last rendered in each slot, or null if none */
+    private final Entry[] entries;
+
+    /**
+     * Represents a task with the line it was rendered as.
+     */
+    private static class Entry {
+        private final Task task;
+        private final boolean isDone;
+        private final String line;
+
+        Entry(Task task, boolean isDone, String line) {
+            this.task = task;
+            this.isDone = isDone;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Creates a RenderCache instance.
+     *
+     * @param capacity Number of lines kept, rounded up to a power of two, or 0 to render tasks every time.
+     */
+    public RenderCache(int capacity) {
+        this.entries = new Entry[(capacity <= 0) ? 0 : Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+    }
+
+    /**
+     * Returns the line a task is displayed as, rendering it only if it is not in the cache.
+     *
+     * @param task Task to display.
+     * @return A string representing the task.
+     */
+    public String render(Task task) {
+        if (this.entries.length == 0) {
+            return task.render();
+        }
+
+        boolean isDone = task.isDone;
+        int slot = System.identityHashCode(task) & (this.entries.length - 1);
+        Entry entry = this.entries[slot];
+        if ((entry != null) && (entry.task == task) && (entry.isDone == isDone)) {
+            return entry.line;
+        }
+
+        String line = task.render();
+        this.entries[slot] = new Entry(task, isDone, line);
+        return line;
+    }
+
+}
@@ -0,0 +1,151 @@
+package aladdin;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Represents a server that lets several users chat with an Aladdin chatbot at once, in lines of text over TCP.
+ * Users type the same commands as at the console, and share the chatbot's tasks.
+ * Each connection is a session served by its own thread, a virtual thread where the Java runtime has them,
+ * so thousands of users waiting to type cost little.
+ * The server only listens on the loopback address, so it can only be reached from the same machine.
+ */
+public class Server {
+    /** Number of connections waiting to be accepted before more are refused */
+    private static final int BACKLOG = 4096;
+    /** Time waited after the first failure to accept a connection, doubling with each failure after it */
+    private static final long MIN_ACCEPT_RETRY_MILLIS = 10;
+    /** Longest time waited after a failure to accept a connection */
+    private static final long MAX_ACCEPT_RETRY_MILLIS = 1000;
+
+    /** Chatbot whose tasks the users share */
+    private final Aladdin chatbot;
+    /** Socket connections are accepted from */
+    private final ServerSocket serverSocket;
+    /** Threads serving the connections */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a Server instance, listening on a port of the loopback address.
+     *
+     * @param chatbot Chatbot whose tasks the users share.
+     * @param port Port to listen on, or 0 for any free port.
+     * @throws AladdinException If the port cannot be listened on.
+     */
+    public Server(Aladdin chatbot, int port) throws AladdinException {
+        this.chatbot = chatbot;
+        try {
+            this.serverSocket = new ServerSocket();
+            this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+
+        } catch (IOException e) {
+            throw new AladdinException("Unable to listen on port " + port + ": " + e.getMessage());
+        }
+        this.executor = Server.createExecutor();
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread for each task, or reuses platform threads
+     * if the Java runtime does not have virtual threads.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            // Virtual threads are only in Java 21 onwards, so are looked up when the server starts
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Getter for port.
+     *
+     * @return Port the server listens on.
+     */
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections and serves each on its own thread, until the server is closed.
+     * If a connection cannot be accepted, prints why and waits longer after each failure in a row before retrying,
+     * as failures such as running out of file descriptors would otherwise repeat at once.
+     */
+    public void serve() {
+        long retryMillis = MIN_ACCEPT_RETRY_MILLIS;
+        while (true) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                this.executor.execute(() -> this.serveConnection(socket));
+                retryMillis = MIN_ACCEPT_RETRY_MILLIS;
+
+            } catch (IOException e) {
+                if (this.serverSocket.isClosed()) {
+                    return;
+                }
+                Ui.printMsg("Unable to accept a connection: " + e.getMessage());
+                Ui.flush();
+
+                try {
+                    Thread.sleep(retryMillis);
+
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryMillis = Math.min(retryMillis * 2, MAX_ACCEPT_RETRY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Chats with the user of a connection until the user says bye or disconnects.
+     *
+     * @param socket The connection.
+     */
+    private void serveConnection(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            // Responses are buffered by the session, and written to the socket outside the chatbot's lock
+            Ui.startSession(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            try {
+                Aladdin session = this.chatbot.newSession();
+                Ui.printWelcome(session.getName());
+                if (session.converse()) {
+                    Ui.printExit();
+                }
+
+            } finally {
+                // Ended before the socket closes, so the last response is written out
+                Ui.endSession();
+            }
+
+        } catch (IOException e) {
+            // Connection is lost, so there is no one to tell
+        }
+    }
+
+    /**
+     * Stops accepting connections. Sessions already started carry on until their users leave.
+     */
+    public void close() {
+        try {
+            this.serverSocket.close();
+
+        } catch (IOException e) {
+            // Already closed
+        }
+        this.executor.shutdown();
+    }
+
+}
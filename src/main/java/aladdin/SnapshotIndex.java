@@ -0,0 +1,378 @@
+package aladdin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents the positions of the records in a text storage file.
+ * Changes in a mutation log are turned into patches of only the records they affect:
+ * a status change rewrites its own record in place, a delete overwrites its record's done flag
+ * with a tombstone, and an add is appended to the end of the file.
+ * Each record takes up a task number, including tombstones, so tasks keep their task numbers when the file is read.
+ * Where a rewritten file leaves out deleted tasks, it has a skip record taking up their task numbers instead.
+ */
+public class SnapshotIndex {
+    /** Done flag of a record whose task was deleted */
+    protected static final byte TOMBSTONE = '-';
+    /** Task type of a skip record, a tombstone taking up the task numbers of any number of deleted tasks */
+    private static final byte SKIP_TYPE = '-';
+
+    /** Position of the done flag in a record, after the task type and a separator */
+    private static final int DONE_FLAG_INDEX = 2;
+    /** Size of the buffer used when scanning the storage file */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /** Position in the file of each record that is not a tombstone, in task order */
+    private long[] recordOffsets;
+    /** Number of records that are not tombstones */
+    private int recordCount;
+    /** Number of tombstone records */
+    private int tombstoneCount;
+    /** Size of the storage file in bytes */
+    private long fileSize;
+
+    private SnapshotIndex(long[] recordOffsets, int recordCount, int tombstoneCount, long fileSize) {
+        this.recordOffsets = recordOffsets;
+        this.recordCount = recordCount;
+        this.tombstoneCount = tombstoneCount;
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Returns true if a record is a tombstone.
+     *
+     * @param buffer Buffer holding the record.
+     * @param start Index of the first byte of the record.
+     * @param end Index just after the last byte of the record, excluding its checksum.
+     * @return True if the record is a tombstone. Otherwise, false.
+     */
+    public static boolean isTombstone(ByteBuffer buffer, int start, int end) {
+        int doneIndex = start + DONE_FLAG_INDEX;
+        return (doneIndex < end) && (buffer.get(doneIndex) == TOMBSTONE) && (buffer.get(doneIndex - 1) == '|')
+                && ((doneIndex + 1 == end) || (buffer.get(doneIndex + 1) == '|'));
+    }
+
+    /**
+     * Returns a skip record, which takes up the task numbers of deleted tasks left out of the file,
+     * so the tasks after it keep their task numbers. It is a tombstone, so it is never read as a task.
+     *
+     * @param count Number of task numbers taken up.
+     * @return The skip record, without a checksum.
+     */
+    public static String skipRecord(int count) {
+        return (char) SKIP_TYPE + "|" + (char) TOMBSTONE + "|" + count;
+    }
+
+    /**
+     * Returns the number of task numbers a tombstone takes up,
+     * which is the count of a skip record, or 1 for the record of a deleted task.
+     *
+     * @param buffer Buffer holding the tombstone.
+     * @param start Index of the first byte of the tombstone.
+     * @param end Index just after the last byte of the tombstone, excluding its checksum.
+     * @return Number of task numbers taken up.
+     */
+    public static int countTaskNumbers(ByteBuffer buffer, int start, int end) {
+        if ((buffer.get(start) != SKIP_TYPE) || (start + DONE_FLAG_INDEX + 2 >= end)) {
+            return 1;
+        }
+
+        int count = 0;
+        for (int i = start + DONE_FLAG_INDEX + 2; i < end; i++) {
+            byte digit = buffer.get(i);
+            if ((digit < '0') || (digit > '9')) {
+                return 1;
+            }
+            count = count * 10 + (digit - '0');
+        }
+        return count;
+    }
+
+    /**
+     * Scans a text storage file for the positions of its records, without deserialising them.
+     *
+     * @param path Path of the storage file.
+     * @return The index, or null if the file cannot be patched in place,
+     *     as it has a record without a checksum or does not end with a line separator.
+     * @throws IOException If the storage file cannot be read.
+     */
+    public static SnapshotIndex scan(Path path) throws IOException {
+        long[] recordOffsets = new long[1024];
+        int recordCount = 0;
+        int tombstoneCount = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long bufferOffset = 0;
+
+            while (bufferOffset < fileSize) {
+                buffer.clear();
+                channel.read(buffer, bufferOffset);
+                buffer.flip();
+
+                // Only scan complete lines, the rest is scanned again from the start of the next buffer
+                int lineStart = 0;
+                int lineEnd;
+                while ((lineEnd = SnapshotIndex.indexOfLineEnd(buffer, lineStart)) >= 0) {
+                    int recordEnd = lineEnd;
+                    if ((recordEnd > lineStart) && (buffer.get(recordEnd - 1) == '\r')) {
+                        recordEnd--;
+                    }
+
+                    if (recordEnd > lineStart) {
+                        if (!RecordChecksum.hasChecksum(buffer, lineStart, recordEnd)) {
+                            return null;
+                        }
+                        if (SnapshotIndex.isTombstone(buffer, lineStart, recordEnd)) {
+                            tombstoneCount++;
+                        } else {
+                            if (recordCount == recordOffsets.length) {
+                                recordOffsets = Arrays.copyOf(recordOffsets, recordCount * 2);
+                            }
+                            recordOffsets[recordCount++] = bufferOffset + lineStart;
+                        }
+                    }
+                    lineStart = lineEnd + 1;
+                }
+
+                if ((lineStart == 0) && (buffer.limit() > 0)) {
+                    // Line longer than the buffer, or last line without a line separator
+                    return null;
+                }
+                bufferOffset += lineStart;
+            }
+            return new SnapshotIndex(recordOffsets, recordCount, tombstoneCount, fileSize);
+        }
+    }
+
+    private static int indexOfLineEnd(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter for recordCount.
+     *
+     * @return Number of records that are not tombstones.
+     */
+    public int getRecordCount() {
+        return this.recordCount;
+    }
+
+    /**
+     * Getter for tombstoneCount.
+     *
+     * @return Number of tombstone records.
+     */
+    public int getTombstoneCount() {
+        return this.tombstoneCount;
+    }
+
+    /**
+     * Replays a mutation log into patches of the storage file.
+     * This index is left unchanged, as the patches are not yet applied.
+     *
+     * @param path Path of the storage file.
+     * @param log Mutation log to replay.
+     * @param patches List to add the patches to, in order.
+     * @return The index of the storage file once the patches are applied,
+     *     or null if a record to patch is corrupted.
+     * @throws IOException If the storage file cannot be read.
+     * @throws AladdinException If the mutation log cannot be read.
+     */
+    public SnapshotIndex createPatches(Path path, MutationLog log, List<PatchJournal.Patch> patches)
+            throws IOException, AladdinException {
+        RecordOverlay overlay = new RecordOverlay(this.recordCount);
+        log.replay(overlay);
+
+        long[] patchedOffsets = new long[overlay.getSize()];
+        int patchedCount = 0;
+        int patchedTombstoneCount = this.tombstoneCount;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < this.recordCount; i++) {
+                byte flag = overlay.changedFlags[i];
+                if (flag != TOMBSTONE) {
+                    patchedOffsets[patchedCount++] = this.recordOffsets[i];
+                } else {
+                    patchedTombstoneCount++;
+                }
+                if (flag == 0) {
+                    continue;
+                }
+
+                byte[] patchedRecord = SnapshotIndex.patchDoneFlag(channel, this.recordOffsets[i], flag);
+                if (patchedRecord == null) {
+                    return null;
+                }
+                if (patchedRecord.length > 0) {
+                    patches.add(new PatchJournal.Patch(this.recordOffsets[i], patchedRecord));
+                }
+            }
+        }
+
+        // Added tasks are always after every task already in the file, and are numbered after them.
+        // Tasks added and then deleted by the log are skipped, so the tasks after them keep their task numbers.
+        StringBuilder addedRecords = new StringBuilder();
+        long patchedFileSize = this.fileSize;
+        int nextTaskId = 0;
+        for (int i = 0; i < overlay.addedTasks.getSize(); i++) {
+            int taskId = overlay.addedTasks.getTaskId(i);
+            if (taskId > nextTaskId) {
+                patchedFileSize += SnapshotIndex.appendLine(addedRecords,
+                        SnapshotIndex.skipRecord(taskId - nextTaskId));
+                patchedTombstoneCount++;
+            }
+            patchedOffsets[patchedCount++] = patchedFileSize;
+            patchedFileSize += SnapshotIndex.appendLine(addedRecords, overlay.addedTasks.get(i).serialise());
+            nextTaskId = taskId + 1;
+        }
+        if (overlay.addedTasks.getNextTaskId() > nextTaskId) {
+            patchedFileSize += SnapshotIndex.appendLine(addedRecords,
+                    SnapshotIndex.skipRecord(overlay.addedTasks.getNextTaskId() - nextTaskId));
+            patchedTombstoneCount++;
+        }
+        if (addedRecords.length() > 0) {
+            byte[] addedBytes = addedRecords.toString().getBytes(StandardCharsets.UTF_8);
+            patches.add(new PatchJournal.Patch(this.fileSize, addedBytes));
+        }
+
+        return new SnapshotIndex(patchedOffsets, patchedCount, patchedTombstoneCount, patchedFileSize);
+    }
+
+    /**
+     * Appends a record with its checksum and a line separator.
+     *
+     * @return Number of bytes appended, in UTF-8.
+     */
+    private static int appendLine(StringBuilder lines, String record) {
+        String line = RecordChecksum.append(record) + System.lineSeparator();
+        lines.append(line);
+        return line.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Returns a record with its done flag and checksum changed.
+     *
+     * @return The patched record, an empty array if the done flag is already set, or null if the record is corrupted.
+     */
+    private static byte[] patchDoneFlag(FileChannel channel, long offset, byte flag) throws IOException {
+        String line = SnapshotIndex.readLine(channel, offset);
+        String record = RecordChecksum.strip(line, true);
+        if ((record == null) || (record.length() <= DONE_FLAG_INDEX)) {
+            return null;
+        }
+        if (record.charAt(DONE_FLAG_INDEX) == flag) {
+            return new byte[0];
+        }
+
+        String patchedRecord = record.substring(0, DONE_FLAG_INDEX) + (char) flag
+                + record.substring(DONE_FLAG_INDEX + 1);
+        byte[] patchedLine = RecordChecksum.append(patchedRecord).getBytes(StandardCharsets.UTF_8);
+        // A patch must not overwrite the next record
+        return (patchedLine.length == line.getBytes(StandardCharsets.UTF_8).length) ? patchedLine : null;
+    }
+
+    /**
+     * Returns the line at a position of the file, without its line separator.
+     */
+    private static String readLine(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        while (true) {
+            buffer.clear();
+            int bytesRead = channel.read(buffer, offset);
+            int lineEnd = SnapshotIndex.indexOfLineEnd(buffer.flip(), 0);
+            if ((lineEnd >= 0) || (bytesRead < buffer.capacity())) {
+                int end = (lineEnd >= 0) ? lineEnd : buffer.limit();
+                if ((end > 0) && (buffer.get(end - 1) == '\r')) {
+                    end--;
+                }
+                return new String(buffer.array(), 0, end, StandardCharsets.UTF_8);
+            }
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        }
+    }
+
+    /**
+     * Represents the changes of a mutation log to the tasks of a storage file, without loading those tasks.
+     * Task numbers are mapped to records through a Fenwick tree of the records not yet deleted.
+     */
+    private static class RecordOverlay extends TaskList {
+        /** Records in the storage file that are not deleted */
+        private final FenwickTree liveRecords;
+        /** New done flag of each record in the storage file, 0 if unchanged */
+        private final byte[] changedFlags;
+        /** Number of records in the storage file that are not deleted */
+        private int liveRecordCount;
+        /** Tasks added after the records in the storage file, with their ids */
+        private final TaskSlots addedTasks = new TaskSlots();
+
+        RecordOverlay(int recordCount) {
+            this.liveRecords = new FenwickTree(recordCount, recordCount);
+            this.changedFlags = new byte[recordCount];
+            this.liveRecordCount = recordCount;
+        }
+
+        @Override
+        public int getSize() {
+            return this.liveRecordCount + this.addedTasks.getSize();
+        }
+
+        @Override
+        public void addToTaskList(Task t) {
+            this.addedTasks.add(t);
+        }
+
+        /**
+         * Records a change in task status.
+         *
+         * @return The modified task if it was added by the log. Otherwise, null.
+         */
+        @Override
+        public Task changeTaskStatus(int taskNumber, boolean isDone) {
+            if ((taskNumber <= 0) || (taskNumber > this.getSize())) {
+                return null;
+            }
+            if (taskNumber > this.liveRecordCount) {
+                Task task = this.addedTasks.get(taskNumber - this.liveRecordCount - 1);
+                task.setDone(isDone);
+                return task;
+            }
+            this.changedFlags[this.liveRecords.findKth(taskNumber)] = (byte) (isDone ? '1' : '0');
+            return null;
+        }
+
+        /**
+         * Records a deleted task.
+         *
+         * @return The deleted task if it was added by the log. Otherwise, null.
+         */
+        @Override
+        public Task deleteTask(int taskNumber) {
+            if ((taskNumber <= 0) || (taskNumber > this.getSize())) {
+                return null;
+            }
+            if (taskNumber > this.liveRecordCount) {
+                return this.addedTasks.remove(taskNumber - this.liveRecordCount - 1);
+            }
+            int slot = this.liveRecords.findKth(taskNumber);
+            this.liveRecords.add(slot, -1);
+            this.changedFlags[slot] = TOMBSTONE;
+            this.liveRecordCount--;
+            return null;
+        }
+    }
+
+}
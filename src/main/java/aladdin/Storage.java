@@ -1,67 +1,364 @@
 package aladdin;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Represents a file that stores tasks.
+ * Changes are appended to a mutation log, which is compacted into the storage file
+ * in the background once it grows past a threshold. A text storage file is compacted by patching
+ * only the records that changed, until deleted records make up half the file and it is rewritten.
+ * Every line written ends with a checksum, and the storage file is only replaced by an atomic rename
+ * of a fully written file, so a crash never leaves a half-written storage file behind.
  */
 public class Storage {
+    /**
+     * Enumeration for formats of the storage file
+     */
+    public enum Format { TEXT, BINARY }
+
+    /** Default number of log records that triggers a compaction */
+    public static final int DEFAULT_COMPACT_RECORDS = 10000;
+    /** Default log file size in bytes that triggers a compaction */
+    public static final long DEFAULT_COMPACT_BYTES = 1 << 20;
+
+    /** File extension of the mutation log, appended to the storage file path */
+    private static final String LOG_EXTENSION = ".log";
+    /** File extension of the mutation log being compacted */
+    private static final String ROTATED_LOG_EXTENSION = ".log.1";
+    /** File extension of a storage file that is still being written */
+    private static final String TEMP_EXTENSION = ".tmp";
+    /** File extension of a fully written storage file that replaces the current one */
+    private static final String PENDING_EXTENSION = ".pending";
+    /** File extension of the journal of patches being applied to the storage file */
+    private static final String PATCH_EXTENSION = ".patch";
+    /** File extension of a storage file kept after converting it to another format */
+    private static final String BACKUP_EXTENSION = ".bak";
+    /** File extension of a copy of a corrupted file, kept before it is repaired */
+    private static final String CORRUPT_EXTENSION = ".corrupt";
+
     /** File path for the storage file */
     private String filePath;
+    /** Format of the storage file */
+    private Format format;
+    /** Log of changes made since the storage file was last saved */
+    private MutationLog mutationLog;
+    /** Log of changes being compacted into the storage file */
+    private MutationLog rotatedLog;
+    /** Number of log records that triggers a compaction, 0 to disable */
+    private int maxLogRecords;
+    /** Log file size in bytes that triggers a compaction, 0 to disable */
+    private long maxLogBytes;
+    /** Background thread that compacts the log into the storage file */
+    private ExecutorService compactor;
+    /** Compaction currently running, if any */
+    private Future<?> compaction;
+    /** Whether writes are forced to the storage device before they are considered written */
+    private boolean isSynced;
+    /** Positions of the records in the text storage file, scanned on first compaction */
+    private SnapshotIndex snapshotIndex;
+    /** List of tasks paged from the text storage file, which is only replaced, never patched, while paged */
+    private PagedTaskList pagedTaskList;
+    /** Pool the descriptions of the tasks read are shared through */
+    private final DescriptionPool descriptionPool = new DescriptionPool(DescriptionPool.DEFAULT_CAPACITY);
 
     /**
-     * Creates a Storage instance.
+     * Creates a Storage instance for a text storage file.
      *
      * @param filePath The path of the storage file.
      */
     public Storage(String filePath) {
+        this(filePath, Format.TEXT);
+    }
+
+    /**
+     * Creates a Storage instance.
+     *
+     * @param filePath The path of the storage file.
+     * @param format The format of the storage file.
+     */
+    public Storage(String filePath, Format format) {
         this.filePath = filePath;
+        this.format = format;
+        this.mutationLog = new MutationLog(filePath + LOG_EXTENSION);
+        this.rotatedLog = new MutationLog(filePath + ROTATED_LOG_EXTENSION);
+        this.maxLogRecords = DEFAULT_COMPACT_RECORDS;
+        this.maxLogBytes = DEFAULT_COMPACT_BYTES;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aladdin-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the size of the mutation log that triggers a compaction into the storage file.
+     *
+     * @param maxLogRecords Number of log records that triggers a compaction, 0 to disable.
+     * @param maxLogBytes Log file size in bytes that triggers a compaction, 0 to disable.
+     */
+    public void setCompactionThreshold(int maxLogRecords, long maxLogBytes) {
+        this.maxLogRecords = maxLogRecords;
+        this.maxLogBytes = maxLogBytes;
     }
 
     /**
-     * Loads the tasks from storage file into a TaskList.
+     * Sets when changes are written to the mutation log.
+     *
+     * @param durability EVERY_COMMAND to write each change before returning, INTERVAL to write
+     *     changes every intervalMillis, or ON_EXIT to write changes when closed.
+     * @param intervalMillis Time between writes for INTERVAL durability.
+     */
+    public void setDurability(MutationLog.Durability durability, long intervalMillis) {
+        this.mutationLog.setDurability(durability, intervalMillis);
+    }
+
+    /**
+     * Sets whether writes are forced to the storage device, so saved changes survive a power failure.
+     * Forcing every write is slower, so it is off by default.
+     *
+     * @param isSynced If writes are forced to the storage device, true. Otherwise, false.
+     */
+    public void setSynced(boolean isSynced) {
+        this.isSynced = isSynced;
+        this.mutationLog.setSynced(isSynced);
+    }
+
+    /**
+     * Writes every pending change to the mutation log.
+     *
+     * @throws AladdinException If an error occurs when writing the mutation log.
+     */
+    public void flush() throws AladdinException {
+        this.mutationLog.flush();
+    }
+
+    /**
+     * Loads the tasks from storage file into a TaskList,
+     * then replays the changes recorded in the mutation logs.
+     * A PagedTaskList is backed by a text storage file instead, so its tasks are only read when needed,
+     * and the mutation log is compacted by saving a frozen copy of the list as a new storage file in the background.
+     * The list stays backed by the file it was opened with, which it can still read once the file is replaced.
+     * If a file ends with corrupted records, the tasks before them are still loaded,
+     * a copy of the file is kept with a .corrupt extension, and the storage file is saved again.
      *
      * @param taskList The lists of tasks to populate.
-     * @throws AladdinException If storage file is not found or corrupted.
+     * @throws AladdinException If storage file is not found, cannot be read, or ends with corrupted records.
      */
     public void load(TaskList taskList) throws AladdinException {
-        File f = new File(this.filePath);
+        this.recoverCompaction();
+        if ((taskList instanceof PagedTaskList) && this.rotatedLog.exists()) {
+            this.foldRotatedLogBeforePaging();
+        }
+
+        if (!this.hasSavedTasks()) {
+            // If file does not exist, no task to load
+            throw new AladdinException("Note: There was no saved tasks file found from a previous session."
+                    + System.lineSeparator() + "You may safely ignore this if this is your first time using Aladdin.");
+        }
+
+        Ui.printMsg("File containing saved tasks found!" + System.lineSeparator()
+                + "Loading tasks from: " + new File(this.filePath).getAbsolutePath());
+
+        List<String> corruptions = this.readAll(taskList);
+        if (corruptions.isEmpty()) {
+            this.compactIfNeeded();
+            return;
+        }
+
+        // Keep the corrupted files, then save the tasks that were loaded so the corruption is not read again.
+        // The rotated log cannot be compacted as usual, as it may be corrupted, but its copy is kept.
+        this.backUpCorruptFiles();
+        this.rotatedLog.clear();
+        this.mutationLog.rotate(this.filePath + ROTATED_LOG_EXTENSION);
+        this.writeSnapshot(taskList);
+        throw new AladdinException("Skipped corrupted data at the end of " + String.join(", ", corruptions)
+                + System.lineSeparator() + "Copies of the corrupted files were kept with a "
+                + CORRUPT_EXTENSION + " extension.");
+    }
+
+    /**
+     * Folds a rotated log left by a failed compaction into the storage file, before the file is paged.
+     * Once paged, the log could only be rotated over it, so it would never be compacted.
+     * If it cannot be folded in, such as when it ends with corrupted data, it is replayed as usual instead.
+     */
+    private void foldRotatedLogBeforePaging() {
         try {
-            Scanner s = new Scanner(f); // FileNotFoundException if directory or file does not exist
-            Ui.printMsg("File containing saved tasks found!" + System.lineSeparator()
-                    + "Loading tasks from: " + f.getAbsolutePath());
+            this.compactRotatedLog();
+
+        } catch (AladdinException e) {
+            // Reported when the rotated log is replayed
+        }
+    }
 
-            // while file contains non-whitespace character
-            while (s.hasNext()) {
-                // Parse next line
-                String nextLineString = s.nextLine();
-                Task newTask = Storage.deserialiseTask(nextLineString);
+    /**
+     * Returns true if the storage file or its mutation logs exist.
+     *
+     * @return True if there are saved tasks. Otherwise, false.
+     */
+    public boolean hasSavedTasks() {
+        return new File(this.filePath).isFile() || new File(this.filePath + PENDING_EXTENSION).isFile()
+                || this.rotatedLog.exists() || this.mutationLog.exists();
+    }
 
-                // Add to taskList
-                taskList.addToTaskList(newTask);
+    /**
+     * Converts the saved tasks of another Storage into this Storage's format.
+     * The other storage file is kept with a .bak extension, and its mutation logs are deleted.
+     *
+     * @param source The Storage to convert tasks from.
+     * @throws AladdinException If either storage file cannot be read or written,
+     *     or the other storage file ends with corrupted records.
+     */
+    public void convertFrom(Storage source) throws AladdinException {
+        TaskList taskList = new TaskList();
+        source.recoverCompaction();
+        List<String> corruptions = source.readAll(taskList);
+        if (!corruptions.isEmpty()) {
+            source.backUpCorruptFiles();
+        }
+        this.save(taskList);
+
+        try {
+            source.close();
+            Path sourcePath = Paths.get(source.filePath);
+            if (Files.exists(sourcePath)) {
+                Files.move(sourcePath, Paths.get(source.filePath + BACKUP_EXTENSION),
+                        StandardCopyOption.REPLACE_EXISTING);
             }
+            source.rotatedLog.clear();
+            source.mutationLog.clear();
 
-        } catch (FileNotFoundException e) {
-            // If file does not exist, no task to load
-            throw new AladdinException("Note: There was no saved tasks file found from a previous session."
-                    + System.lineSeparator() + "You may safely ignore this if this is your first time using Aladdin.");
+        } catch (IOException e) {
+            throw new AladdinException("Error backing up " + source.filePath + " file: " + e.getMessage());
+        }
+
+        if (!corruptions.isEmpty()) {
+            throw new AladdinException("Skipped corrupted data at the end of " + String.join(", ", corruptions)
+                    + System.lineSeparator() + "Copies of the corrupted files were kept with a "
+                    + CORRUPT_EXTENSION + " extension.");
+        }
+    }
 
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new AladdinException("There was an error loading tasks from the file. "
-                    + "Please check data formatting in " + this.filePath);
+    /**
+     * Copies the storage file and mutation logs, so corrupted records can still be recovered by hand.
+     *
+     * @throws AladdinException If an error occurs when copying the files.
+     */
+    private void backUpCorruptFiles() throws AladdinException {
+        String[] filePaths = {this.filePath, this.filePath + ROTATED_LOG_EXTENSION, this.filePath + LOG_EXTENSION};
 
-        } catch (DateTimeParseException e) {
-            throw new AladdinException("Corrupted LocalDateTime format in : " + this.filePath);
+        try {
+            for (String path : filePaths) {
+                if (Files.exists(Paths.get(path))) {
+                    Files.copy(Paths.get(path), Paths.get(path + CORRUPT_EXTENSION),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+        } catch (IOException e) {
+            throw new AladdinException("Error backing up corrupted " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the storage file and replays the mutation logs into a TaskList.
+     * Each file is read up to its first corrupted record.
+     *
+     * @param taskList The lists of tasks to populate.
+     * @return Description of each file that ends with corrupted records.
+     * @throws AladdinException If storage file or mutation logs cannot be read.
+     */
+    private List<String> readAll(TaskList taskList) throws AladdinException {
+        List<String> corruptions = new ArrayList<>();
+
+        if (new File(this.filePath).isFile()) {
+            long skippedCount = (taskList instanceof PagedTaskList)
+                    ? this.openSnapshot((PagedTaskList) taskList)
+                    : this.readSnapshot(taskList);
+            if (skippedCount > 0) {
+                corruptions.add(this.filePath + " (" + skippedCount
+                        + ((this.format == Format.BINARY) ? " bytes)" : " lines)"));
+            }
+        }
+
+        // Apply changes made after the storage file was saved
+        for (MutationLog log : new MutationLog[] {this.rotatedLog, this.mutationLog}) {
+            log.replay(taskList, this.descriptionPool);
+            if (log.getSkippedCount() > 0) {
+                corruptions.add(log.getFilePath() + " (" + log.getSkippedCount() + " records)");
+            }
+        }
+        return corruptions;
+    }
+
+    /**
+     * Reads the tasks in the storage file into a TaskList, up to the first corrupted record.
+     *
+     * @param taskList The lists of tasks to populate.
+     * @return Number of lines, or bytes in binary format, skipped from the first corrupted record.
+     * @throws AladdinException If storage file cannot be read.
+     */
+    private long readSnapshot(TaskList taskList) throws AladdinException {
+        try {
+            if (this.format == Format.BINARY) {
+                return BinaryTaskFile.read(Paths.get(this.filePath), taskList, this.descriptionPool);
+            } else {
+                return TaskFileReader.read(Paths.get(this.filePath), taskList, this.descriptionPool);
+            }
+
+        } catch (IOException e) {
+            throw new AladdinException("Error reading " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Backs a PagedTaskList with the text storage file, or reads the tasks into it if the file cannot be paged.
+     *
+     * @param taskList The list of tasks to back with the storage file.
+     * @return Number of lines, or bytes in binary format, skipped from the first corrupted record.
+     * @throws AladdinException If storage file cannot be read.
+     */
+    private long openSnapshot(PagedTaskList taskList) throws AladdinException {
+        if (this.format == Format.TEXT) {
+            try {
+                long skippedCount = taskList.open(Paths.get(this.filePath));
+                if (skippedCount >= 0) {
+                    this.pagedTaskList = taskList;
+                    return skippedCount;
+                }
+
+            } catch (IOException e) {
+                throw new AladdinException("Error reading " + this.filePath + " file: " + e.getMessage());
+            }
         }
+
+        // Written without checksums, so the file is read in full and rewritten with them on the next compaction
+        return this.readSnapshot(taskList);
+    }
+
+    /**
+     * Getter for the pool the descriptions of the tasks read are shared through.
+     * Tasks created by other means can share descriptions with the tasks read, by pooling theirs here too.
+     *
+     * @return The pool of descriptions.
+     */
+    public DescriptionPool getDescriptionPool() {
+        return this.descriptionPool;
     }
 
     /**
@@ -73,28 +370,60 @@ public class Storage {
      * @throws ArrayIndexOutOfBoundsException If storage file is corrupted.
      */
     protected static Task deserialiseTask(String nextLineString) throws ArrayIndexOutOfBoundsException {
-        String[] nextLineStringArray = nextLineString.split("\\|");
+        return Storage.deserialiseTask(nextLineString, null);
+    }
+
+    /**
+     * Returns a Task object instance, with its description shared through a pool.
+     *
+     * @param nextLineString Serialised string representation of a Task.
+     * @param descriptionPool Pool the description is shared through, or null if it is not pooled.
+     * @return A Task object instance.
+     * @throws ArrayIndexOutOfBoundsException If storage file is corrupted.
+     */
+    protected static Task deserialiseTask(String nextLineString, DescriptionPool descriptionPool)
+            throws ArrayIndexOutOfBoundsException {
+        // Trailing empty fields are treated as missing, like String.split
+        int end = nextLineString.length();
+        while ((end > 0) && (nextLineString.charAt(end - 1) == '|')) {
+            end--;
+        }
+
+        int typeEnd = Storage.fieldEnd(nextLineString, 0, end);
+        int doneStart = Storage.nextFieldStart(typeEnd, end, 1);
+        int doneEnd = Storage.fieldEnd(nextLineString, doneStart, end);
+        int descriptionStart = Storage.nextFieldStart(doneEnd, end, 2);
+        int descriptionEnd = Storage.fieldEnd(nextLineString, descriptionStart, end);
+        String description = nextLineString.substring(descriptionStart, descriptionEnd);
+        if (descriptionPool != null) {
+            description = descriptionPool.intern(description);
+        }
+        String taskType = nextLineString.substring(0, typeEnd);
 
         Task newTask = null;
 
-        if (nextLineStringArray[0].equals("D")) {
+        if (taskType.equals("D")) {
             // Create Deadline task
-            newTask = new Deadline(nextLineStringArray[2],
-                    LocalDateTime.parse(nextLineStringArray[3], Aladdin.DATE_TIME_STORE));
+            int byStart = Storage.nextFieldStart(descriptionEnd, end, 3);
+            int byEnd = Storage.fieldEnd(nextLineString, byStart, end);
+            newTask = new Deadline(description, DateTimeCodec.parse(nextLineString, byStart, byEnd));
 
-        } else if (nextLineStringArray[0].equals("E")) {
+        } else if (taskType.equals("E")) {
             // Create Event task
-            newTask = new Event(nextLineStringArray[2],
-                    LocalDateTime.parse(nextLineStringArray[3], Aladdin.DATE_TIME_STORE),
-                    LocalDateTime.parse(nextLineStringArray[4], Aladdin.DATE_TIME_STORE));
+            int fromStart = Storage.nextFieldStart(descriptionEnd, end, 3);
+            int fromEnd = Storage.fieldEnd(nextLineString, fromStart, end);
+            LocalDateTime from = DateTimeCodec.parse(nextLineString, fromStart, fromEnd);
+            int toStart = Storage.nextFieldStart(fromEnd, end, 4);
+            int toEnd = Storage.fieldEnd(nextLineString, toStart, end);
+            newTask = new Event(description, from, DateTimeCodec.parse(nextLineString, toStart, toEnd));
 
-        } else { // nextLineStringArray[0].equals("T")
+        } else { // taskType.equals("T")
             // Create Todo task
-            newTask = new Todo(nextLineStringArray[2]);
+            newTask = new Todo(description);
         }
 
         // If task is marked done
-        if (nextLineStringArray[1].equals("1")) {
+        if ((doneEnd - doneStart == 1) && (nextLineString.charAt(doneStart) == '1')) {
             newTask.setDone(true);
 
         } else { // task is not done
@@ -104,15 +433,141 @@ public class Storage {
         return newTask;
     }
 
+    /**
+     * Returns the index of the separator ending the field that starts at the given index.
+     */
+    private static int fieldEnd(String line, int fieldStart, int end) {
+        int separatorIndex = line.indexOf('|', fieldStart);
+        return ((separatorIndex < 0) || (separatorIndex > end)) ? end : separatorIndex;
+    }
+
+    /**
+     * Returns the start of the field after the separator at the given index.
+     *
+     * @throws ArrayIndexOutOfBoundsException If there is no next field.
+     */
+    private static int nextFieldStart(int separatorIndex, int end, int fieldNumber) {
+        if (separatorIndex >= end) {
+            throw new ArrayIndexOutOfBoundsException("Index " + fieldNumber + " out of bounds");
+        }
+        return separatorIndex + 1;
+    }
+
+    /**
+     * Records a task added to the end of the TaskList.
+     *
+     * @param task The task added.
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendAdd(Task task) throws AladdinException {
+        this.mutationLog.append(MutationLog.addRecord(task));
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Records a change in status of a task in the TaskList.
+     *
+     * @param taskNumber The task number changed (starts from 1).
+     * @param isDone If the task is now done, true. Otherwise, false.
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendStatus(int taskNumber, boolean isDone) throws AladdinException {
+        this.mutationLog.append(MutationLog.statusRecord(taskNumber, isDone));
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Records a task deleted from the TaskList.
+     *
+     * @param taskNumber The task number deleted (starts from 1).
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendDelete(int taskNumber) throws AladdinException {
+        this.mutationLog.append(MutationLog.deleteRecord(taskNumber));
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Records tasks added to the end of the TaskList, in a single write to the mutation log.
+     *
+     * @param tasks The tasks added, in order.
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendAdds(List<Task> tasks) throws AladdinException {
+        List<String> records = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            records.add(MutationLog.addRecord(task));
+        }
+        this.mutationLog.append(records);
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Records a change in status of tasks in the TaskList, in a single write to the mutation log.
+     *
+     * @param taskNumbers The task numbers changed (starts from 1).
+     * @param isDone If the tasks are now done, true. Otherwise, false.
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendStatuses(int[] taskNumbers, boolean isDone) throws AladdinException {
+        List<String> records = new ArrayList<>(taskNumbers.length);
+        for (int taskNumber : taskNumbers) {
+            records.add(MutationLog.statusRecord(taskNumber, isDone));
+        }
+        this.mutationLog.append(records);
+        this.compactIfNeeded();
+    }
+
+    /**
+     * Records tasks deleted from the TaskList, in a single write to the mutation log.
+     *
+     * @param taskNumbers The task numbers deleted (starts from 1), in the order they were deleted,
+     *     each numbered as it was just before its own delete.
+     * @throws AladdinException If an error occurs when writing to the mutation log.
+     */
+    public void appendDeletes(int[] taskNumbers) throws AladdinException {
+        List<String> records = new ArrayList<>(taskNumbers.length);
+        for (int taskNumber : taskNumbers) {
+            records.add(MutationLog.deleteRecord(taskNumber));
+        }
+        this.mutationLog.append(records);
+        this.compactIfNeeded();
+    }
+
     /**
      * Saves tasks in a TaskList to the storage file for archival.
+     * The mutation logs are cleared, as their changes are now part of the storage file.
      *
      * @param taskList The list of tasks to save into the storage file.
      * @throws AladdinException If an error occurs when creating/opening the storage file.
      */
     public void save(TaskList taskList) throws AladdinException {
+        this.awaitCompaction();
+        if (this.rotatedLog.exists()) {
+            // Finish a compaction that failed earlier, so the logs can be rotated
+            this.compactRotatedLog();
+        }
+
+        this.mutationLog.rotate(this.filePath + ROTATED_LOG_EXTENSION);
+        this.writeSnapshot(taskList);
+    }
+
+    /**
+     * Writes tasks in a TaskList to a new storage file, which then replaces the current one.
+     * The rotated log is deleted between the two steps, so a crash at any point
+     * can be recovered by {@link #recoverCompaction()} without replaying a change twice.
+     *
+     * @param taskList The list of tasks to save into the storage file.
+     * @throws AladdinException If an error occurs when creating/opening the storage file.
+     */
+    private void writeSnapshot(TaskList taskList) throws AladdinException {
+        Path snapshotPath = Paths.get(this.filePath);
+        Path tempPath = Paths.get(this.filePath + TEMP_EXTENSION);
+        Path pendingPath = Paths.get(this.filePath + PENDING_EXTENSION);
+        this.snapshotIndex = null;
+
         try {
-            Path parentDirectory = Paths.get(this.filePath).getParent();
+            Path parentDirectory = snapshotPath.getParent();
             if (parentDirectory != null) {
                 // Creates parent directory if it does not exist
                 Files.createDirectories(parentDirectory);
@@ -120,15 +575,21 @@ public class Storage {
 
             // Creates file if it does not exist, otherwise overwrite (delete/add tasks)
             // throws IOException
-            FileWriter fw = new FileWriter(this.filePath);
-
-            for (int i = 0; i < taskList.getSize(); i++) {
-                Task currentTask = taskList.getTask(i);
-                fw.write(currentTask.serialise() + System.lineSeparator());
+            if (this.format == Format.BINARY) {
+                BinaryTaskFile.write(tempPath, taskList);
+            } else {
+                this.writeText(tempPath, taskList);
+            }
+            if (this.isSynced) {
+                Storage.forceToDevice(tempPath);
             }
 
-            // Close FileWrite object to complete writing operation
-            fw.close();
+            Files.move(tempPath, pendingPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.rotatedLog.clear();
+            Files.move(pendingPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (this.isSynced && (parentDirectory != null)) {
+                Storage.forceDirectoryToDevice(parentDirectory);
+            }
 
         } catch (IOException e) {
             throw new AladdinException("Error creating/opening " + this.filePath
@@ -136,4 +597,265 @@ public class Storage {
         }
     }
 
+    private void writeText(Path path, TaskList taskList) throws IOException {
+        BufferedWriter fw = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+
+        // Deleted tasks are left out, with skip records taking up their task numbers
+        int nextTaskNumber = 1;
+        for (int i = 0; i < taskList.getSize(); i++) {
+            int taskNumber = taskList.getTaskNumber(i);
+            if (taskNumber > nextTaskNumber) {
+                fw.write(RecordChecksum.append(SnapshotIndex.skipRecord(taskNumber - nextTaskNumber)));
+                fw.write(System.lineSeparator());
+            }
+            Task currentTask = taskList.getTask(i);
+            fw.write(RecordChecksum.append(currentTask.serialise()));
+            fw.write(System.lineSeparator());
+            nextTaskNumber = taskNumber + 1;
+        }
+        if (taskList.getNextTaskNumber() > nextTaskNumber) {
+            fw.write(RecordChecksum.append(SnapshotIndex.skipRecord(taskList.getNextTaskNumber() - nextTaskNumber)));
+            fw.write(System.lineSeparator());
+        }
+
+        // Close writer to complete writing operation
+        fw.close();
+    }
+
+    private static void forceToDevice(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces the renames in a directory to the storage device.
+     * Not every platform can open a directory, so this is skipped where it is not supported.
+     */
+    private static void forceDirectoryToDevice(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+
+        } catch (IOException e) {
+            // Directory cannot be opened on this platform
+        }
+    }
+
+    /**
+     * Finishes or discards a storage file write that was interrupted in a previous session.
+     *
+     * @throws AladdinException If an error occurs when replacing the storage file.
+     */
+    private void recoverCompaction() throws AladdinException {
+        Path pendingPath = Paths.get(this.filePath + PENDING_EXTENSION);
+        Path journalPath = Paths.get(this.filePath + PATCH_EXTENSION);
+
+        try {
+            // A temp file may be incomplete, and its changes are still in the rotated log
+            Files.deleteIfExists(Paths.get(this.filePath + TEMP_EXTENSION));
+            PatchJournal.discardIncomplete(journalPath);
+
+            // A complete patch journal already includes the rotated log
+            if (Files.exists(journalPath)) {
+                if (PatchJournal.apply(journalPath, Paths.get(this.filePath), this.isSynced)) {
+                    this.rotatedLog.clear();
+                }
+                Files.delete(journalPath);
+            }
+
+            // A pending file is complete, so the rotated log is already part of it
+            if (Files.exists(pendingPath)) {
+                this.rotatedLog.clear();
+                Files.move(pendingPath, Paths.get(this.filePath),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+        } catch (IOException e) {
+            throw new AladdinException("Error recovering " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a background compaction if the mutation log has grown past the threshold.
+     * The log is rotated first, so later changes are appended to a new log file.
+     * If the storage file is paged, it cannot be patched, so a frozen copy of the paged tasks is saved instead.
+     *
+     * @throws AladdinException If the previous compaction failed.
+     */
+    private void compactIfNeeded() throws AladdinException {
+        this.checkCompaction();
+        if (this.compaction != null) {
+            // Previous compaction still running
+            return;
+        }
+
+        boolean hasTooManyRecords = (this.maxLogRecords > 0)
+                && (this.mutationLog.getRecordCount() >= this.maxLogRecords);
+        boolean isTooLarge = (this.maxLogBytes > 0)
+                && (this.mutationLog.getByteCount() >= this.maxLogBytes);
+        if (!hasTooManyRecords && !isTooLarge) {
+            return;
+        }
+
+        if (this.pagedTaskList != null) {
+            if (this.rotatedLog.exists()) {
+                // Left by a compaction that failed, and folded in when this Storage is closed
+                return;
+            }
+            this.mutationLog.rotate(this.filePath + ROTATED_LOG_EXTENSION);
+            PagedTaskList frozenTaskList = this.pagedTaskList.freeze();
+            this.compaction = this.compactor.submit(() -> {
+                this.writeSnapshot(frozenTaskList);
+                return null;
+            });
+            return;
+        }
+
+        if (!this.rotatedLog.exists()) {
+            this.mutationLog.rotate(this.filePath + ROTATED_LOG_EXTENSION);
+        }
+        this.compaction = this.compactor.submit(() -> {
+            this.compactRotatedLog();
+            return null;
+        });
+    }
+
+    /**
+     * Folds the rotated log into the storage file.
+     *
+     * @throws AladdinException If the storage file or rotated log cannot be read or written.
+     */
+    private void compactRotatedLog() throws AladdinException {
+        if ((this.format == Format.TEXT) && new File(this.filePath).isFile() && this.patchRotatedLog()) {
+            return;
+        }
+
+        TaskList compactedTaskList = new TaskList();
+        if (new File(this.filePath).isFile() && (this.readSnapshot(compactedTaskList) > 0)) {
+            throw new AladdinException("Not compacting " + this.filePath + " file, as it ends with corrupted data");
+        }
+        this.rotatedLog.replay(compactedTaskList, this.descriptionPool);
+        if (this.rotatedLog.getSkippedCount() > 0) {
+            throw new AladdinException("Not compacting " + this.filePath + " file, as "
+                    + this.rotatedLog.getFilePath() + " ends with corrupted data");
+        }
+        this.writeSnapshot(compactedTaskList);
+    }
+
+    /**
+     * Folds the rotated log into the text storage file by patching only the records it changes.
+     * The patches are journaled first, so a crash part way through is finished by {@link #recoverCompaction()}.
+     *
+     * @return True if the rotated log was folded in. Otherwise, false, and the storage file must be rewritten.
+     * @throws AladdinException If the storage file or rotated log cannot be read or written.
+     */
+    private boolean patchRotatedLog() throws AladdinException {
+        Path snapshotPath = Paths.get(this.filePath);
+        Path journalPath = Paths.get(this.filePath + PATCH_EXTENSION);
+
+        try {
+            if (this.snapshotIndex == null) {
+                this.snapshotIndex = SnapshotIndex.scan(snapshotPath);
+            }
+            if (this.snapshotIndex == null) {
+                // Written without checksums, so rewrite it once with them
+                return false;
+            }
+
+            List<PatchJournal.Patch> patches = new ArrayList<>();
+            SnapshotIndex patchedIndex = this.snapshotIndex.createPatches(snapshotPath, this.rotatedLog, patches);
+            if (this.rotatedLog.getSkippedCount() > 0) {
+                throw new AladdinException("Not compacting " + this.filePath + " file, as "
+                        + this.rotatedLog.getFilePath() + " ends with corrupted data");
+            }
+            if ((patchedIndex == null) || (patchedIndex.getTombstoneCount() > patchedIndex.getRecordCount())) {
+                // Too many deleted records left in place
+                return false;
+            }
+
+            this.snapshotIndex = null;
+            PatchJournal.write(journalPath, patches, this.isSynced);
+            this.rotatedLog.clear();
+            PatchJournal.apply(journalPath, snapshotPath, this.isSynced);
+            Files.delete(journalPath);
+            this.snapshotIndex = patchedIndex;
+            return true;
+
+        } catch (IOException e) {
+            throw new AladdinException("Error patching " + this.filePath + " file to save tasks: " + e.getMessage());
+        }
+    }
+
+    private void closePagedTaskList() throws AladdinException {
+        try {
+            this.pagedTaskList.close();
+            this.pagedTaskList = null;
+
+        } catch (IOException e) {
+            throw new AladdinException("Error closing " + this.filePath + " file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rethrows the error of the previous compaction, if it has finished with one.
+     *
+     * @throws AladdinException If the previous compaction failed.
+     */
+    private void checkCompaction() throws AladdinException {
+        if ((this.compaction == null) || !this.compaction.isDone()) {
+            return;
+        }
+        this.awaitCompaction();
+    }
+
+    /**
+     * Waits for the running compaction to finish, if any.
+     *
+     * @throws AladdinException If the compaction failed.
+     */
+    private void awaitCompaction() throws AladdinException {
+        if (this.compaction == null) {
+            return;
+        }
+
+        try {
+            this.compaction.get();
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AladdinException) {
+                throw (AladdinException) e.getCause();
+            }
+            throw new AladdinException("Error compacting " + this.filePath + " file: " + e.getCause());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AladdinException("Interrupted while compacting " + this.filePath + " file");
+
+        } finally {
+            this.compaction = null;
+        }
+    }
+
+    /**
+     * Closes the mutation log, after any running compaction finishes.
+     * Pending changes are written to the mutation log first.
+     * If the storage file is paged, the PagedTaskList is closed, and the mutation log is then compacted if needed.
+     *
+     * @throws AladdinException If an error occurs when writing or closing the mutation log.
+     */
+    public void close() throws AladdinException {
+        try {
+            this.awaitCompaction();
+            if (this.pagedTaskList != null) {
+                this.closePagedTaskList();
+                this.compactIfNeeded();
+                this.awaitCompaction();
+            }
+
+        } finally {
+            this.compactor.shutdown();
+            this.mutationLog.close();
+        }
+    }
+
 }
@@ -3,7 +3,7 @@ package aladdin;
 /**
  * Represents a Task.
  */
-public abstract class Task {
+public abstract class Task implements Cloneable {
     /** Description of Task */
     protected String description;
     /** Status of Task competion */
@@ -28,6 +28,21 @@ public abstract class Task {
         this.isDone = isDone;
     }
 
+    /**
+     * Returns a copy of the task, which can be changed without changing this task.
+     *
+     * @return A copy of the task.
+     */
+    public Task copy() {
+        try {
+            // Every field is immutable or primitive, so a shallow copy is enough
+            return (Task) super.clone();
+
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError("Task is Cloneable", e);
+        }
+    }
+
     /**
      * Returns status icon of task, depending on isDone.
      *
@@ -46,11 +61,21 @@ public abstract class Task {
 
     /**
      * Returns a string representation of a Task.
+     * Lists of tasks are displayed through a {@link RenderCache} instead, which keeps the lines rendered.
      *
      * @return A string representing the Task.
      */
     @Override
     public String toString() {
+        return this.render();
+    }
+
+    /**
+     * Returns a newly formatted string representation of a Task.
+     *
+     * @return A string representing the Task.
+     */
+    protected String render() {
         return "[" + this.getStatusIcon() + "] " + this.description;
     }
 }
@@ -0,0 +1,423 @@
+package aladdin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Represents a reader that deserialises tasks straight from the bytes of a storage file, read a window at a time.
+ * Lines are scanned for '|' and newline bytes directly, without a Scanner or regex-based split.
+ * Large files are split into chunks at line boundaries and deserialised in parallel.
+ * Tombstones are not read as tasks, but take up the task numbers they were saved with.
+ */
+public class TaskFileReader {
+    /** Largest region of the file read into memory at once */
+    protected static final int MAX_WINDOW_SIZE = 1 << 26;
+    /** Smallest region of the file worth deserialising in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 22;
+    /** Smallest chunk of the file deserialised by one thread */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /** Separator between fields of a serialised task */
+    private static final byte FIELD_SEPARATOR = '|';
+    /** Separator between serialised tasks */
+    private static final byte LINE_SEPARATOR = '\n';
+
+    /** Pool the descriptions read are shared through */
+    private final DescriptionPool descriptionPool;
+    /** Buffer to copy text fields into before decoding */
+    private byte[] scratch = new byte[256];
+    /** Set once a line with a checksum is read, as every later line was written with one */
+    private boolean isChecksumRequired;
+
+    /**
+     * Creates a TaskFileReader instance.
+     *
+     * @param descriptionPool Pool the descriptions read are shared through.
+     */
+    public TaskFileReader(DescriptionPool descriptionPool) {
+        this.descriptionPool = descriptionPool;
+    }
+
+    /**
+     * Reads every task in a storage file into a TaskList.
+     * Reading stops at the first corrupted line, so the tasks before it are still loaded.
+     *
+     * @param path Path of the storage file.
+     * @param taskList The list of tasks to populate.
+     * @param descriptionPool Pool the descriptions read are shared through.
+     * @return Number of lines skipped from the first corrupted line to the end of the file.
+     * @throws IOException If the storage file cannot be read.
+     */
+    public static long read(Path path, TaskList taskList, DescriptionPool descriptionPool) throws IOException {
+        TaskFileReader reader = new TaskFileReader(descriptionPool);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(fileSize, MAX_WINDOW_SIZE));
+            long position = 0;
+
+            while (position < fileSize) {
+                TaskFileReader.readWindow(channel, position, buffer);
+                boolean isLastWindow = (position + buffer.limit() >= fileSize);
+
+                // Only parse up to the last complete line, unless this is the end of the file
+                int end = isLastWindow ? buffer.limit() : TaskFileReader.lastLineEnd(buffer);
+                int readEnd;
+                if (end == 0) {
+                    // Line longer than a window is treated as corrupted
+                    readEnd = 0;
+                } else if (end >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                    reader.isChecksumRequired |= TaskFileReader.hasFirstLineChecksum(buffer, end);
+                    readEnd = TaskFileReader.readLinesInParallel(buffer, end, reader, taskList);
+                } else {
+                    readEnd = reader.readLines(buffer, 0, end, taskList::addToTaskList, taskList::skipTaskNumbers);
+                }
+
+                if (readEnd < end || end == 0) {
+                    return TaskFileReader.countLines(channel, position + readEnd, fileSize);
+                }
+                position += end;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the index just after the last line separator in a buffer, or 0 if there is none.
+     */
+    private static int lastLineEnd(ByteBuffer buffer) {
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            if (buffer.get(i) == LINE_SEPARATOR) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true if the first non-blank line in a buffer ends with a checksum.
+     */
+    private static boolean hasFirstLineChecksum(ByteBuffer buffer, int end) {
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while ((lineEnd < end) && (buffer.get(lineEnd) != LINE_SEPARATOR)) {
+                lineEnd++;
+            }
+            int recordEnd = ((lineEnd > lineStart) && (buffer.get(lineEnd - 1) == '\r')) ? lineEnd - 1 : lineEnd;
+            if (recordEnd > lineStart) {
+                return RecordChecksum.hasChecksum(buffer, lineStart, recordEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of non-blank lines in a region of a file.
+     *
+     * @param channel Channel of the file.
+     * @param start Position of the first byte of the region.
+     * @param end Position just after the last byte of the region.
+     * @return Number of non-blank lines.
+     * @throws IOException If the file cannot be read.
+     */
+    protected static long countLines(FileChannel channel, long start, long end) throws IOException {
+        long lineCount = 0;
+        boolean isBlankLine = true;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        long position = start;
+        while (position < end) {
+            buffer.clear();
+            int bytesRead = channel.read(buffer, position);
+            if (bytesRead < 0) {
+                break;
+            }
+            for (int i = 0; i < bytesRead; i++) {
+                byte b = buffer.get(i);
+                if (b == LINE_SEPARATOR) {
+                    lineCount += isBlankLine ? 0 : 1;
+                    isBlankLine = true;
+                } else if (b != '\r') {
+                    isBlankLine = false;
+                }
+            }
+            position += bytesRead;
+        }
+        return lineCount + (isBlankLine ? 0 : 1);
+    }
+
+    /**
+     * Reads a region of a file into a buffer, from index 0 up to its limit.
+     * The file is read into memory rather than mapped, so it can be replaced straight afterwards
+     * on platforms that lock mapped files.
+     *
+     * @param channel Channel of the file.
+     * @param position Position of the first byte of the region.
+     * @param buffer Buffer to read into, filled up to its capacity unless the file ends first.
+     * @throws IOException If the file cannot be read.
+     */
+    protected static void readWindow(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Deserialises the first bytes of a buffer on the common fork-join pool.
+     * Each chunk is deserialised into its own list, then added to the TaskList in file order,
+     * so task numbers are the same as reading the file sequentially.
+     *
+     * @param buffer Buffer holding the serialised tasks.
+     * @param end Index just after the last line to read.
+     * @param reader Reader of the file so far, whose settings each chunk is read with.
+     * @param taskList The list of tasks to populate.
+     * @return Index of the first corrupted line, or end if there is none.
+     */
+    private static int readLinesInParallel(ByteBuffer buffer, int end, TaskFileReader reader, TaskList taskList) {
+        int chunkCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, end / chunkCount);
+
+        // Split into chunks that end just after a line separator
+        List<ChunkReader> chunkReaders = new ArrayList<>();
+        int chunkStart = 0;
+        while (chunkStart < end) {
+            int chunkEnd = Math.min(chunkStart + chunkSize, end);
+            while ((chunkEnd < end) && (buffer.get(chunkEnd - 1) != LINE_SEPARATOR)) {
+                chunkEnd++;
+            }
+            chunkReaders.add(new ChunkReader(buffer, chunkStart, chunkEnd, reader.isChecksumRequired,
+                    reader.descriptionPool));
+            chunkStart = chunkEnd;
+        }
+
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(chunkReaders);
+            }
+        });
+
+        // Stitch chunks back together in order, up to the first corrupted line
+        for (ChunkReader chunkReader : chunkReaders) {
+            List<Task> tasks = chunkReader.join();
+            int skipIndex = 0;
+            for (int i = 0; i <= tasks.size(); i++) {
+                while ((skipIndex < chunkReader.skips.size()) && (chunkReader.skips.get(skipIndex)[0] == i)) {
+                    taskList.skipTaskNumbers(chunkReader.skips.get(skipIndex++)[1]);
+                }
+                if (i < tasks.size()) {
+                    taskList.addToTaskList(tasks.get(i));
+                }
+            }
+            if (chunkReader.readEnd < chunkReader.end) {
+                return chunkReader.readEnd;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Deserialises each line in a range of the buffer and passes it to a consumer.
+     * Blank lines are skipped, the number of task numbers each tombstone takes up is passed to another consumer,
+     * and reading stops at the first corrupted line.
+     *
+     * @param buffer Buffer holding the serialised tasks.
+     * @param start Index of the first byte of the range.
+     * @param end Index just after the last byte of the range.
+     * @param taskConsumer Consumer of each deserialised task, in file order.
+     * @param skipConsumer Consumer of the number of task numbers each tombstone takes up, in file order.
+     * @return Index of the first corrupted line, or end if there is none.
+     */
+    protected int readLines(ByteBuffer buffer, int start, int end, Consumer<Task> taskConsumer,
+            IntConsumer skipConsumer) {
+        int lineStart = start;
+
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while ((lineEnd < end) && (buffer.get(lineEnd) != LINE_SEPARATOR)) {
+                lineEnd++;
+            }
+
+            // Ignore carriage return of Windows line separators
+            int recordEnd = lineEnd;
+            if ((recordEnd > lineStart) && (buffer.get(recordEnd - 1) == '\r')) {
+                recordEnd--;
+            }
+
+            if (recordEnd > lineStart) {
+                // Lines after the first with a checksum were all written with one
+                boolean hasChecksum = RecordChecksum.hasChecksum(buffer, lineStart, recordEnd);
+                recordEnd = RecordChecksum.strip(buffer, lineStart, recordEnd, this.isChecksumRequired);
+                if (recordEnd < 0) {
+                    return lineStart;
+                }
+                this.isChecksumRequired |= hasChecksum;
+
+                try {
+                    // Skip records of deleted tasks, which are left in place until the file is rewritten
+                    if (!SnapshotIndex.isTombstone(buffer, lineStart, recordEnd)) {
+                        taskConsumer.accept(this.readTask(buffer, lineStart, recordEnd));
+                    } else {
+                        skipConsumer.accept(SnapshotIndex.countTaskNumbers(buffer, lineStart, recordEnd));
+                    }
+
+                } catch (ArrayIndexOutOfBoundsException | DateTimeException e) {
+                    return lineStart;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return end;
+    }
+
+    /**
+     * Returns a Task deserialised from a single line of the buffer.
+     * Follows the same rules as {@link Storage#deserialiseTask(String)}.
+     *
+     * @param buffer Buffer holding the serialised task.
+     * @param start Index of the first byte of the line.
+     * @param end Index just after the last byte of the line.
+     * @return A Task object instance.
+     * @throws ArrayIndexOutOfBoundsException If a field of the task is missing.
+     */
+    protected Task readTask(ByteBuffer buffer, int start, int end) throws ArrayIndexOutOfBoundsException {
+        // Trailing empty fields are treated as missing, like String.split
+        while ((end > start) && (buffer.get(end - 1) == FIELD_SEPARATOR)) {
+            end--;
+        }
+
+        int typeEnd = this.fieldEnd(buffer, start, end);
+        int doneStart = this.nextFieldStart(typeEnd, end, 1);
+        int doneEnd = this.fieldEnd(buffer, doneStart, end);
+        int descriptionStart = this.nextFieldStart(doneEnd, end, 2);
+        int descriptionEnd = this.fieldEnd(buffer, descriptionStart, end);
+        String description = this.decodeDescription(buffer, descriptionStart, descriptionEnd);
+
+        Task newTask;
+        byte taskType = (typeEnd - start == 1) ? buffer.get(start) : 0;
+
+        if (taskType == 'D') {
+            // Create Deadline task
+            int byStart = this.nextFieldStart(descriptionEnd, end, 3);
+            int byEnd = this.fieldEnd(buffer, byStart, end);
+            newTask = new Deadline(description, this.readDateTime(buffer, byStart, byEnd));
+
+        } else if (taskType == 'E') {
+            // Create Event task
+            int fromStart = this.nextFieldStart(descriptionEnd, end, 3);
+            int fromEnd = this.fieldEnd(buffer, fromStart, end);
+            LocalDateTime from = this.readDateTime(buffer, fromStart, fromEnd);
+            int toStart = this.nextFieldStart(fromEnd, end, 4);
+            int toEnd = this.fieldEnd(buffer, toStart, end);
+            newTask = new Event(description, from, this.readDateTime(buffer, toStart, toEnd));
+
+        } else { // taskType == 'T'
+            // Create Todo task
+            newTask = new Todo(description);
+        }
+
+        // Task is done only if the field is exactly "1"
+        newTask.setDone((doneEnd - doneStart == 1) && (buffer.get(doneStart) == '1'));
+
+        return newTask;
+    }
+
+    /**
+     * Returns the index of the separator ending the field that starts at the given index.
+     */
+    private int fieldEnd(ByteBuffer buffer, int fieldStart, int end) {
+        int index = fieldStart;
+        while ((index < end) && (buffer.get(index) != FIELD_SEPARATOR)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the start of the field after the separator at the given index.
+     *
+     * @throws ArrayIndexOutOfBoundsException If there is no next field.
+     */
+    private int nextFieldStart(int separatorIndex, int end, int fieldNumber) {
+        if (separatorIndex >= end) {
+            throw new ArrayIndexOutOfBoundsException("Index " + fieldNumber + " out of bounds");
+        }
+        return separatorIndex + 1;
+    }
+
+    private LocalDateTime readDateTime(ByteBuffer buffer, int start, int end) {
+        int length = this.copyToScratch(buffer, start, end);
+        return DateTimeCodec.parse(this.scratch, 0, length);
+    }
+
+    private String decodeDescription(ByteBuffer buffer, int start, int end) {
+        int length = this.copyToScratch(buffer, start, end);
+        return this.descriptionPool.intern(this.scratch, 0, length);
+    }
+
+    private int copyToScratch(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > this.scratch.length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+        }
+        buffer.get(start, this.scratch, 0, length);
+        return length;
+    }
+
+    /**
+     * Represents the deserialisation of one chunk of a storage file.
+     */
+    private static class ChunkReader extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+        private final boolean isChecksumRequired;
+        /** Pool shared by every chunk, which it allows without locking */
+        private final DescriptionPool descriptionPool;
+        /** Index of the first corrupted line, or end if there is none */
+        private int readEnd;
+        /** Number of tasks read before each tombstone, and the number of task numbers it takes up */
+        private final List<int[]> skips = new ArrayList<>();
+
+        ChunkReader(ByteBuffer buffer, int start, int end, boolean isChecksumRequired,
+                DescriptionPool descriptionPool) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.isChecksumRequired = isChecksumRequired;
+            this.descriptionPool = descriptionPool;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            List<Task> tasks = new ArrayList<>();
+            TaskFileReader reader = new TaskFileReader(this.descriptionPool);
+            reader.isChecksumRequired = this.isChecksumRequired;
+            this.readEnd = reader.readLines(this.buffer, this.start, this.end, tasks::add,
+                    count -> this.skips.add(new int[] {tasks.size(), count}));
+            return tasks;
+        }
+    }
+
+}
@@ -1,28 +1,39 @@
 package aladdin;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Predicate;
 
 /**
  * Represents a list of tasks.
+ * Each task has an id that stays the same while it is in the list, which indexes use to refer to it,
+ * and which gives the task number shown for it. Methods that change tasks take the task's position
+ * in the list instead (starts from 1), which {@link #indexOfTaskNumber(int)} finds from its task number.
  */
-public class TaskList {
-    /** ArrayList of Task objects */
-    private ArrayList<Task> tasks;
+public class TaskList implements TaskListView {
+    /** Tasks in the list, with their ids */
+    private TaskSlots tasks;
+    /** Index of the words in task descriptions, built on first search */
+    private WordIndex wordIndex;
+    /** Index of the times of deadlines and events, built on first search by time */
+    private TimeIndex timeIndex;
+    /** Cache of the lines tasks are displayed as, or null if tasks are rendered every time */
+    private RenderCache renderCache;
 
     /**
      * Creates a TaskList instance.
      */
     public TaskList() {
-        this.tasks = new ArrayList<Task>();
+        this.tasks = new TaskSlots();
     }
 
     /**
      * Returns number of tasks in the list.
      *
-     * @return Size of ArrayList.
+     * @return Number of tasks.
      */
     public int getSize() {
-        return this.tasks.size();
+        return this.tasks.getSize();
     }
 
     /**
@@ -31,7 +42,13 @@ public class TaskList {
      * @param t Task to be added to the list.
      */
     public void addToTaskList(Task t) {
-        this.tasks.add(t);
+        int taskId = this.tasks.add(t);
+        if (this.wordIndex != null) {
+            this.wordIndex.add(taskId, t);
+        }
+        if (this.timeIndex != null) {
+            this.timeIndex.add(taskId, t);
+        }
     }
 
     /**
@@ -44,16 +61,93 @@ public class TaskList {
         return this.tasks.get(index);
     }
 
+    /**
+     * Returns the line the task at the specified index is displayed as, from the render cache if there is one.
+     *
+     * @param index Index of the task.
+     * @return A string representing the task.
+     */
+    public String renderTask(int index) {
+        Task task = this.getTask(index);
+        return (this.renderCache != null) ? this.renderCache.render(task) : task.toString();
+    }
+
+    /**
+     * Setter for the cache of the lines tasks are displayed as.
+     *
+     * @param renderCache Cache of the lines, or null to render tasks every time they are displayed.
+     */
+    public void setRenderCache(RenderCache renderCache) {
+        this.renderCache = renderCache;
+    }
+
+    /**
+     * Returns the task number shown for the task at the specified index, which is its id + 1.
+     *
+     * @param index Index of the task.
+     * @return Task number of the task (starts from 1).
+     */
+    public int getTaskNumber(int index) {
+        return this.tasks.getTaskId(index) + 1;
+    }
+
+    /**
+     * Returns the index of the task with the specified task number.
+     *
+     * @param taskNumber Task number shown for the task.
+     * @return Index of the task, or -1 if no task in the list has that task number.
+     */
+    public int indexOfTaskNumber(int taskNumber) {
+        return (taskNumber > 0) ? this.tasks.indexOf(taskNumber - 1) : -1;
+    }
+
+    /**
+     * Returns the task number the next task added will be shown with.
+     *
+     * @return Task number of the next task added (starts from 1).
+     */
+    public int getNextTaskNumber() {
+        return this.tasks.getNextTaskId() + 1;
+    }
+
+    /**
+     * Skips task numbers, as if that many tasks were added and deleted,
+     * so tasks read from a storage file keep the task numbers they were saved with.
+     *
+     * @param count Number of task numbers to skip.
+     */
+    public void skipTaskNumbers(int count) {
+        this.tasks.skipIds(count);
+    }
+
+    /**
+     * Returns the position in the list of a task from its id.
+     *
+     * @param taskId Id of the task.
+     * @return Index of the task, or -1 if the task was deleted.
+     */
+    protected int indexOfTaskId(int taskId) {
+        return this.tasks.indexOf(taskId);
+    }
+
     /**
      * Deletes a task from the list.
+     * Later tasks are not moved, and keep their task numbers, but their positions each go down by 1.
      *
-     * @param taskNumber Specified task to delete (starts from 1).
+     * @param taskNumber Position of the task to delete (starts from 1).
      * @return The Task deleted if valid taskNumber. Otherwise, return null.
      */
     public Task deleteTask(int taskNumber) {
         // If taskNumber is valid
-        if ((0 < taskNumber) && (taskNumber <= this.tasks.size())) {
+        if ((0 < taskNumber) && (taskNumber <= this.tasks.getSize())) {
+            int taskId = this.tasks.getTaskId(taskNumber - 1);
             Task deletedTask = this.tasks.remove(taskNumber - 1);
+            if (this.wordIndex != null) {
+                this.wordIndex.remove();
+            }
+            if (this.timeIndex != null) {
+                this.timeIndex.remove(taskId, deletedTask);
+            }
             return deletedTask;
 
         } else {
@@ -61,26 +155,79 @@ public class TaskList {
         }
     }
 
+    /**
+     * Deletes several tasks from the list as one operation.
+     * Tasks are deleted from the highest position down, so each delete leaves the positions of the
+     * tasks still to be deleted unchanged.
+     *
+     * @param taskNumbers Positions of the tasks to delete (starts from 1), in any order and without duplicates.
+     * @return The tasks deleted, in the order they were deleted, if every taskNumber is valid.
+     *     Otherwise, return null and no task is deleted.
+     */
+    public Task[] deleteTasks(int[] taskNumbers) {
+        if (!this.isValidTaskNumbers(taskNumbers)) {
+            return null;
+        }
+
+        int[] descendingNumbers = taskNumbers.clone();
+        Arrays.sort(descendingNumbers);
+        Task[] deletedTasks = new Task[descendingNumbers.length];
+        for (int i = 0; i < descendingNumbers.length; i++) {
+            deletedTasks[i] = this.deleteTask(descendingNumbers[descendingNumbers.length - 1 - i]);
+        }
+        return deletedTasks;
+    }
+
+    /**
+     * Changes the status of several tasks as one operation.
+     *
+     * @param taskNumbers Positions of the tasks to mark or unmark (starts from 1).
+     * @param isDone Specifies if the tasks are done or not.
+     * @return The modified tasks, in the order of taskNumbers, if every taskNumber is valid.
+     *     Otherwise, return null and no task is modified.
+     */
+    public Task[] changeTaskStatuses(int[] taskNumbers, boolean isDone) {
+        if (!this.isValidTaskNumbers(taskNumbers)) {
+            return null;
+        }
+
+        Task[] modifiedTasks = new Task[taskNumbers.length];
+        for (int i = 0; i < taskNumbers.length; i++) {
+            modifiedTasks[i] = this.changeTaskStatus(taskNumbers[i], isDone);
+        }
+        return modifiedTasks;
+    }
+
+    private boolean isValidTaskNumbers(int[] taskNumbers) {
+        for (int taskNumber : taskNumbers) {
+            if ((taskNumber <= 0) || (taskNumber > this.getSize())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Changes Task status.
      * Either mark or unmark the specified task as done or not done.
      *
-     * @param taskNumber Specified task to mark or unmark.
+     * @param taskNumber Position of the task to mark or unmark (starts from 1).
      * @return The modified task if valid taskNumber. Otherwise, return null.
      */
     public Task changeTaskStatus(int taskNumber, boolean isDone) {
         // If taskNumber is valid
-        if ((0 < taskNumber) && (taskNumber <= this.tasks.size())) {
+        if ((0 < taskNumber) && (taskNumber <= this.tasks.getSize())) {
+            Task task = this.tasks.get(taskNumber - 1);
             if (isDone) {
                 // Mark task as done
-                this.tasks.get(taskNumber - 1).setDone(true);
+                task.setDone(true);
 
             } else {
                 // Unmark task as not done
-                this.tasks.get(taskNumber - 1).setDone(false);
+                task.setDone(false);
             }
             // Return modified task
-            return tasks.get(taskNumber - 1);
+            return task;
 
         } else {
             // taskNumber is not valid
@@ -95,23 +242,149 @@ public class TaskList {
      * @return A String representing the tasks with keyword found in the task description.
      */
     public String searchTasks(String keyword) {
+        return TaskList.formatTasks(this, this.findTasks(keyword));
+    }
+
+    /**
+     * Searches for deadline tasks due from one date/time to another.
+     *
+     * @param from Earliest date/time (inclusive), or null for no earliest.
+     * @param to Latest date/time (inclusive).
+     * @return A String representing the deadline tasks due in that time.
+     */
+    public String searchDeadlines(LocalDateTime from, LocalDateTime to) {
+        return TaskList.formatTasks(this, this.findDeadlines(from, to));
+    }
+
+    /**
+     * Searches for deadline tasks due strictly before a date/time.
+     *
+     * @param before Date/time the deadlines are due before (exclusive).
+     * @return A String representing the deadline tasks due before then.
+     */
+    public String searchDeadlinesBefore(LocalDateTime before) {
+        return TaskList.formatTasks(this, this.findDeadlinesBefore(before));
+    }
+
+    /**
+     * Searches for event tasks overlapping a period.
+     *
+     * @param from Start of the period (inclusive).
+     * @param to End of the period (inclusive).
+     * @return A String representing the event tasks happening at any time in the period.
+     */
+    public String searchEvents(LocalDateTime from, LocalDateTime to) {
+        return TaskList.formatTasks(this, this.findEvents(from, to));
+    }
+
+    /**
+     * Returns a string representation of some tasks of a list, numbered with their task numbers.
+     *
+     * @param taskList The list of the tasks.
+     * @param indexes Indexes of the tasks in the list, in the order they are shown.
+     * @return A String representing the tasks, one on each line.
+     */
+    static String formatTasks(TaskListView taskList, int[] indexes) {
         StringBuilder matchingTaskListString = new StringBuilder();
         String separator = "";
 
-        for (int i = 0; i < this.tasks.size(); i++) {
-            Task currentTask = this.tasks.get(i);
+        for (int i : indexes) {
+            // No new line separator for first task
+            matchingTaskListString.append(separator);
+            separator = System.lineSeparator();
 
-            if (currentTask.description.contains(keyword)) {
-                // No new line separator for first task
-                matchingTaskListString.append(separator);
-                separator = System.lineSeparator();
+            int taskNumber = taskList.getTaskNumber(i);
+            matchingTaskListString.append(taskNumber + ". " + taskList.renderTask(i));
+        }
+        return matchingTaskListString.toString();
+    }
 
-                int taskNumber = i + 1;
-                matchingTaskListString.append(taskNumber + ". " + this.tasks.get(i));
+    /**
+     * Returns the indexes of the tasks whose description contains a keyword, using the word index.
+     *
+     * @param keyword Keyword to match with the tasks' descriptions.
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] findTasks(String keyword) {
+        if (this.wordIndex == null) {
+            this.wordIndex = new WordIndex(this);
+            for (int i = 0; i < this.tasks.getSize(); i++) {
+                this.wordIndex.add(this.tasks.getTaskId(i), this.tasks.get(i));
             }
+        }
 
+        int[] matchingIndexes = this.wordIndex.search(keyword);
+        return (matchingIndexes != null) ? matchingIndexes : this.scanTasks(keyword);
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due from one date/time to another, using the time index.
+     *
+     * @param from Earliest date/time (inclusive), or null for no earliest.
+     * @param to Latest date/time (inclusive).
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] findDeadlines(LocalDateTime from, LocalDateTime to) {
+        return this.getTimeIndex().findDeadlines(from, to);
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due strictly before a date/time, using the time index.
+     *
+     * @param before Date/time the deadlines are due before (exclusive).
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] findDeadlinesBefore(LocalDateTime before) {
+        return this.getTimeIndex().findDeadlinesBefore(before);
+    }
+
+    /**
+     * Returns the indexes of the event tasks overlapping a period, using the time index.
+     *
+     * @param from Start of the period (inclusive).
+     * @param to End of the period (inclusive).
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] findEvents(LocalDateTime from, LocalDateTime to) {
+        return this.getTimeIndex().findEvents(from, to);
+    }
+
+    private TimeIndex getTimeIndex() {
+        if (this.timeIndex == null) {
+            this.timeIndex = new TimeIndex(this);
+            for (int i = 0; i < this.tasks.getSize(); i++) {
+                this.timeIndex.add(this.tasks.getTaskId(i), this.tasks.get(i));
+            }
         }
-        return matchingTaskListString.toString();
+        return this.timeIndex;
+    }
+
+    /**
+     * Returns the indexes of the tasks whose description contains a keyword, by checking every task.
+     *
+     * @param keyword Keyword to match with the tasks' descriptions.
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] scanTasks(String keyword) {
+        return this.scanTasks(task -> task.description.contains(keyword));
+    }
+
+    /**
+     * Returns the indexes of the tasks meeting a condition, by checking every task.
+     *
+     * @param condition Condition of the tasks to return.
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    protected int[] scanTasks(Predicate<Task> condition) {
+        int[] matchingIndexes = new int[this.getSize()];
+        int matchCount = 0;
+
+        for (int i = 0; i < this.getSize(); i++) {
+            if (condition.test(this.getTask(i))) {
+                matchingIndexes[matchCount++] = i;
+            }
+        }
+        return Arrays.copyOf(matchingIndexes, matchCount);
     }
 
     /**
@@ -123,12 +396,12 @@ public class TaskList {
     public String toString() {
         StringBuilder taskListString = new StringBuilder();
 
-        for (int i = 0; i < this.tasks.size(); i++) {
-            int taskNumber = i + 1;
-            taskListString.append(taskNumber + ". " + this.tasks.get(i));
+        for (int i = 0; i < this.getSize(); i++) {
+            int taskNumber = this.getTaskNumber(i);
+            taskListString.append(taskNumber + ". " + this.renderTask(i));
 
             // Add new line if not last item
-            if (i < this.tasks.size() - 1) {
+            if (i < this.getSize() - 1) {
                 taskListString.append(System.lineSeparator());
             }
         }
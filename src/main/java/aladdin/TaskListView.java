@@ -0,0 +1,85 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a read-only view of a list of tasks, such as a snapshot of a list that other threads change.
+ * Tasks are read by index, their position in the list, and shown with their task numbers.
+ */
+public interface TaskListView {
+
+    /**
+     * Returns number of tasks in the list.
+     *
+     * @return Number of tasks.
+     */
+    int getSize();
+
+    /**
+     * Returns the task at the specified index.
+     *
+     * @param index Index of Task to return.
+     * @return The Task at the specified index.
+     */
+    Task getTask(int index);
+
+    /**
+     * Returns the line the task at the specified index is displayed as.
+     *
+     * @param index Index of the task.
+     * @return A string representing the task.
+     */
+    String renderTask(int index);
+
+    /**
+     * Returns the task number shown for the task at the specified index.
+     * A task keeps its task number while it is in the list, so deleting a task does not change the others.
+     *
+     * @param index Index of the task.
+     * @return Task number of the task (starts from 1).
+     */
+    int getTaskNumber(int index);
+
+    /**
+     * Returns the index of the task with the specified task number.
+     *
+     * @param taskNumber Task number shown for the task.
+     * @return Index of the task, or -1 if no task in the list has that task number.
+     */
+    int indexOfTaskNumber(int taskNumber);
+
+    /**
+     * Searches tasks for the specified keyword.
+     *
+     * @param keyword Keyword to match with the tasks' descriptions.
+     * @return A String representing the tasks with keyword found in the task description.
+     */
+    String searchTasks(String keyword);
+
+    /**
+     * Searches for deadline tasks due from one date/time to another.
+     *
+     * @param from Earliest date/time (inclusive), or null for no earliest.
+     * @param to Latest date/time (inclusive).
+     * @return A String representing the deadline tasks due in that time.
+     */
+    String searchDeadlines(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Searches for deadline tasks due strictly before a date/time.
+     *
+     * @param before Date/time the deadlines are due before (exclusive).
+     * @return A String representing the deadline tasks due before then.
+     */
+    String searchDeadlinesBefore(LocalDateTime before);
+
+    /**
+     * Searches for event tasks overlapping a period.
+     *
+     * @param from Start of the period (inclusive).
+     * @param to End of the period (inclusive).
+     * @return A String representing the event tasks happening at any time in the period.
+     */
+    String searchEvents(LocalDateTime from, LocalDateTime to);
+
+}
@@ -0,0 +1,182 @@
+package aladdin;
+
+import java.util.Arrays;
+
+/**
+ * Represents the tasks of a list in slots, each with an id that never changes while the task is in the list.
+ * A deleted task leaves an empty slot instead of shifting every later task,
+ * and a Fenwick tree of the filled slots maps a position in the list to its slot in O(log n).
+ * Empty slots are only removed when the slots are full, in one compaction pass.
+ */
+public class TaskSlots {
+    /** Smallest number of slots */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Task in each slot, or null if its task was deleted */
+    private Task[] tasks = new Task[MIN_CAPACITY];
+    /** Id of the task in each slot, which only increase from slot to slot */
+    private int[] taskIds = new int[MIN_CAPACITY];
+    /** Slots that hold a task */
+    private FenwickTree filledSlots = new FenwickTree(MIN_CAPACITY);
+    /** Number of slots used, including empty ones */
+    private int slotCount;
+    /** Number of tasks */
+    private int taskCount;
+    /** Id given to the next task added */
+    private int nextTaskId;
+
+    /**
+     * Returns a copy of the slots, holding copies of the tasks, so changing either does not change the other.
+     * Tasks keep their ids.
+     *
+     * @return The copy.
+     */
+    public TaskSlots copy() {
+        TaskSlots copy = new TaskSlots();
+        copy.tasks = new Task[this.tasks.length];
+        for (int slot = 0; slot < this.slotCount; slot++) {
+            if (this.tasks[slot] != null) {
+                copy.tasks[slot] = this.tasks[slot].copy();
+            }
+        }
+        copy.taskIds = this.taskIds.clone();
+        copy.filledSlots = new FenwickTree(this.filledSlots);
+        copy.slotCount = this.slotCount;
+        copy.taskCount = this.taskCount;
+        copy.nextTaskId = this.nextTaskId;
+        return copy;
+    }
+
+    /**
+     * Returns number of tasks.
+     *
+     * @return Number of tasks.
+     */
+    public int getSize() {
+        return this.taskCount;
+    }
+
+    /**
+     * Returns the id the next task added will be given, which is greater than the id of every task added before.
+     *
+     * @return Id of the next task.
+     */
+    public int getNextTaskId() {
+        return this.nextTaskId;
+    }
+
+    /**
+     * Skips ids, as if that many tasks were added to the end and removed, so later tasks are given higher ids.
+     *
+     * @param count Number of ids to skip.
+     */
+    public void skipIds(int count) {
+        this.nextTaskId += count;
+    }
+
+    /**
+     * Adds a task to the end.
+     *
+     * @param task Task to add.
+     * @return Id of the task.
+     */
+    public int add(Task task) {
+        if (this.slotCount == this.tasks.length) {
+            this.compact();
+        }
+
+        this.tasks[this.slotCount] = task;
+        this.taskIds[this.slotCount] = this.nextTaskId;
+        this.filledSlots.add(this.slotCount, 1);
+        this.slotCount++;
+        this.taskCount++;
+        return this.nextTaskId++;
+    }
+
+    /**
+     * Returns the task at a position.
+     *
+     * @param index Position of the task (starts from 0).
+     * @return The task at the position.
+     */
+    public Task get(int index) {
+        return this.tasks[this.slotOf(index)];
+    }
+
+    /**
+     * Returns the id of the task at a position.
+     *
+     * @param index Position of the task (starts from 0).
+     * @return Id of the task.
+     */
+    public int getTaskId(int index) {
+        return this.taskIds[this.slotOf(index)];
+    }
+
+    /**
+     * Removes the task at a position, leaving its slot empty.
+     *
+     * @param index Position of the task (starts from 0).
+     * @return The task removed.
+     */
+    public Task remove(int index) {
+        int slot = this.slotOf(index);
+        Task task = this.tasks[slot];
+        this.tasks[slot] = null;
+        this.filledSlots.add(slot, -1);
+        this.taskCount--;
+        return task;
+    }
+
+    /**
+     * Returns the position of a task from its id.
+     *
+     * @param taskId Id of the task.
+     * @return Position of the task (starts from 0), or -1 if the task was deleted.
+     */
+    public int indexOf(int taskId) {
+        int slot = Arrays.binarySearch(this.taskIds, 0, this.slotCount, taskId);
+        if ((slot < 0) || (this.tasks[slot] == null)) {
+            return -1;
+        }
+        return this.isCompact() ? slot : this.filledSlots.prefixSum(slot);
+    }
+
+    /**
+     * Returns the slot of a position, which is the same when no slot is empty.
+     */
+    private int slotOf(int index) {
+        if ((index < 0) || (index >= this.taskCount)) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.taskCount);
+        }
+        return this.isCompact() ? index : this.filledSlots.findKth(index + 1);
+    }
+
+    private boolean isCompact() {
+        return this.slotCount == this.taskCount;
+    }
+
+    /**
+     * Moves every task to the front of new slots with room for as many tasks again.
+     */
+    private void compact() {
+        int capacity = Math.max(MIN_CAPACITY, this.taskCount * 2);
+        Task[] compactedTasks = new Task[capacity];
+        int[] compactedTaskIds = new int[capacity];
+
+        int filledCount = 0;
+        for (int slot = 0; slot < this.slotCount; slot++) {
+            if (this.tasks[slot] != null) {
+                compactedTasks[filledCount] = this.tasks[slot];
+                compactedTaskIds[filledCount] = this.taskIds[slot];
+                filledCount++;
+            }
+        }
+
+        this.tasks = compactedTasks;
+        this.taskIds = compactedTaskIds;
+        this.filledSlots = new FenwickTree(capacity, filledCount);
+        this.slotCount = filledCount;
+    }
+
+}
@@ -0,0 +1,166 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Represents an index of the times of Deadline and Event tasks.
+ * A deadline is indexed as an interval that starts and ends at its 'by' date/time,
+ * and an event as the interval from its 'from' to its 'to' date/time.
+ */
+public class TimeIndex {
+    /** The list of tasks indexed, which gives each task its id */
+    private final TaskList taskList;
+    /** Interval of each deadline task */
+    private final IntervalTree deadlines = new IntervalTree();
+    /** Interval of each event task */
+    private final IntervalTree events = new IntervalTree();
+
+    /**
+     * Creates an empty TimeIndex instance.
+     *
+     * @param taskList The list of tasks indexed.
+     */
+    public TimeIndex(TaskList taskList) {
+        this.taskList = taskList;
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param taskId Id of the task in the list.
+     * @param task The task added to the list.
+     */
+    public void add(int taskId, Task task) {
+        if (task instanceof Deadline) {
+            long by = TimeIndex.toSeconds(((Deadline) task).by);
+            this.deadlines.insert(by, by, taskId);
+
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            this.events.insert(TimeIndex.toSeconds(event.from), TimeIndex.toSeconds(event.to), taskId);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param taskId Id of the task in the list.
+     * @param task The task deleted from the list.
+     */
+    public void remove(int taskId, Task task) {
+        if (task instanceof Deadline) {
+            this.deadlines.remove(TimeIndex.toSeconds(((Deadline) task).by), taskId);
+
+        } else if (task instanceof Event) {
+            this.events.remove(TimeIndex.toSeconds(((Event) task).from), taskId);
+        }
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due from one date/time to another, both inclusive.
+     *
+     * @param from Earliest date/time, or null for no earliest.
+     * @param to Latest date/time.
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    public int[] findDeadlines(LocalDateTime from, LocalDateTime to) {
+        return this.find(this.deadlines, from, to, true);
+    }
+
+    /**
+     * Returns the indexes of the deadline tasks due strictly before a date/time.
+     *
+     * @param before Date/time the deadlines are due before (exclusive).
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    public int[] findDeadlinesBefore(LocalDateTime before) {
+        return this.find(this.deadlines, null, before, false);
+    }
+
+    /**
+     * Returns the indexes of the event tasks overlapping a period, both ends inclusive.
+     *
+     * @param from Start of the period.
+     * @param to End of the period.
+     * @return Indexes of the matching tasks in ascending order.
+     */
+    public int[] findEvents(LocalDateTime from, LocalDateTime to) {
+        return this.find(this.events, from, to, true);
+    }
+
+    /**
+     * Returns true if a task is a deadline due from one date/time to another, both inclusive.
+     * This is the condition findDeadlines() matches, for checking tasks without an index.
+     *
+     * @param task Task to check.
+     * @param from Earliest date/time, or null for no earliest.
+     * @param to Latest date/time.
+     * @return True if the task is a matching deadline. Otherwise, false.
+     */
+    public static boolean isDeadlineDue(Task task, LocalDateTime from, LocalDateTime to) {
+        if (!(task instanceof Deadline)) {
+            return false;
+        }
+        LocalDateTime by = ((Deadline) task).by;
+        return ((from == null) || !by.isBefore(from)) && !by.isAfter(to);
+    }
+
+    /**
+     * Returns true if a task is a deadline due strictly before a date/time.
+     * This is the condition findDeadlinesBefore() matches, for checking tasks without an index.
+     *
+     * @param task Task to check.
+     * @param before Date/time the deadline is due before (exclusive).
+     * @return True if the task is a matching deadline. Otherwise, false.
+     */
+    public static boolean isDeadlineDueBefore(Task task, LocalDateTime before) {
+        return (task instanceof Deadline) && ((Deadline) task).by.isBefore(before);
+    }
+
+    /**
+     * Returns true if a task is an event overlapping a period, both ends inclusive.
+     * This is the condition findEvents() matches, for checking tasks without an index.
+     *
+     * @param task Task to check.
+     * @param from Start of the period.
+     * @param to End of the period.
+     * @return True if the task is a matching event. Otherwise, false.
+     */
+    public static boolean isEventOverlapping(Task task, LocalDateTime from, LocalDateTime to) {
+        if (!(task instanceof Event)) {
+            return false;
+        }
+        Event event = (Event) task;
+        return !event.to.isBefore(from) && !event.from.isAfter(to);
+    }
+
+    private int[] find(IntervalTree tree, LocalDateTime from, LocalDateTime to, boolean isToInclusive) {
+        long fromSeconds = (from != null) ? TimeIndex.toSeconds(from) : Long.MIN_VALUE;
+        IntStream.Builder taskIdsFound = IntStream.builder();
+        if (isToInclusive) {
+            tree.forEachOverlapping(fromSeconds, TimeIndex.toSeconds(to), taskIdsFound::add);
+        } else {
+            tree.forEachOverlappingBefore(fromSeconds, TimeIndex.toSeconds(to), taskIdsFound::add);
+        }
+        int[] taskIds = taskIdsFound.build().toArray();
+
+        // Ids only increase along the list, so sorting them sorts the tasks into list order
+        Arrays.sort(taskIds);
+        int[] indexes = new int[taskIds.length];
+        for (int i = 0; i < taskIds.length; i++) {
+            indexes[i] = this.taskList.indexOfTaskId(taskIds[i]);
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns a date/time as seconds, for comparing with other date/times.
+     */
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+}
@@ -26,12 +26,12 @@ public class Todo extends Task {
     }
 
     /**
-     * Returns a string representation of a Todo.
+     * Returns a newly formatted string representation of a Todo.
      *
      * @return A string representing the Todo.
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String render() {
+        return "[T]" + super.render();
     }
 }
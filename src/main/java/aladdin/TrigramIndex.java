@@ -0,0 +1,97 @@
+package aladdin;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Represents an inverted index from every three-character substring (trigram) of task descriptions
+ * to the tasks that contain it. A description containing a keyword contains every trigram of the keyword,
+ * so intersecting their postings narrows the tasks to check to a few candidates.
+ * Deleted tasks are left in the postings until enough are deleted to remove them all at once,
+ * so deletes never need the index to be rebuilt.
+ */
+public class TrigramIndex {
+    /** Number of characters in an n-gram */
+    public static final int GRAM_LENGTH = 3;
+
+    /** Ids of the tasks containing each trigram, keyed by its three characters */
+    private final Map<Long, Postings> gramPostings = new HashMap<>();
+
+    /**
+     * Adds every trigram of a task description to the index.
+     *
+     * @param taskId Id of the task, greater than any id already added.
+     * @param description Description of the task.
+     */
+    public void add(int taskId, String description) {
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            this.gramPostings.computeIfAbsent(TrigramIndex.gramKey(description, i), key -> new Postings())
+                    .add(taskId);
+        }
+    }
+
+    /**
+     * Removes the ids of deleted tasks from every trigram's postings.
+     *
+     * @param isLive Condition of ids of tasks that are not deleted.
+     */
+    public void removeDeleted(IntPredicate isLive) {
+        this.gramPostings.values().removeIf(postings -> postings.retain(isLive) == 0);
+    }
+
+    /**
+     * Returns the ids of the tasks containing every trigram of a keyword, in ascending order.
+     * Only these tasks can contain the keyword, but each must still be checked, and may have been deleted.
+     *
+     * @param keyword Keyword of at least GRAM_LENGTH characters.
+     * @param maxCandidates Number of candidates above which checking every task is faster.
+     * @return Ids of the candidate tasks, or null if there may be more than maxCandidates.
+     */
+    public int[] findCandidates(String keyword, int maxCandidates) {
+        Postings[] keywordPostings = new Postings[keyword.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < keywordPostings.length; i++) {
+            keywordPostings[i] = this.gramPostings.get(TrigramIndex.gramKey(keyword, i));
+            if (keywordPostings[i] == null) {
+                // No task contains this trigram
+                return new int[0];
+            }
+        }
+        Arrays.sort(keywordPostings, (first, second) -> Integer.compare(first.getSize(), second.getSize()));
+
+        // Only the shortest postings is read in full, the others are searched for each of its ids
+        Postings shortest = keywordPostings[0];
+        Postings[] others = Arrays.copyOfRange(keywordPostings, 1, keywordPostings.length);
+        if (shortest.getSize() > maxCandidates) {
+            return null;
+        }
+
+        int[] candidates = new int[shortest.getSize()];
+        int candidateCount = 0;
+        for (int i = 0; i < shortest.getSize(); i++) {
+            int taskId = shortest.get(i);
+            if (TrigramIndex.isInAll(others, taskId)) {
+                candidates[candidateCount++] = taskId;
+            }
+        }
+        return Arrays.copyOf(candidates, candidateCount);
+    }
+
+    private static boolean isInAll(Postings[] postings, int taskId) {
+        for (Postings gramPostings : postings) {
+            if (!gramPostings.contains(taskId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the three characters of a trigram packed into one key.
+     */
+    private static long gramKey(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+}
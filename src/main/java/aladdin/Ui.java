@@ -1,23 +1,209 @@
 package aladdin;
 
+import java.io.BufferedWriter;
+import java.io.CharArrayWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.Scanner;
 
 /**
  * Represents a User Interface to interact with user.
+ * Output is buffered and written out once per response, before the next user input is read,
+ * or only when the buffer fills if responses need not be seen one at a time, such as in batch mode.
+ * Input and output are standard input and output, unless a thread starts a session of its own,
+ * so each thread serving a network connection talks to its own user.
+ * A session writes a long response out a chunk of tasks at a time, so memory used does not grow with it,
+ * except while the response is held, such as while a lock is held that a user who stops reading must not stall.
+ * A held response is kept in memory until it is written out, before the user's next input is read.
  */
 public class Ui {
 
     /** Line Separator used by Aladdin chatbot */
     private static final String LINE_SEP = "_".repeat(60);
+    /** Number of tasks written to standard output at a time */
+    private static final int TASKS_PER_CHUNK = 1024;
 
-    /** Scanner to read from standard input */
-    private static final Scanner scannerInput = new Scanner(System.in);;
+    /** Size of the buffer for standard output, in chars */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /** Standard input and output, used by every thread not serving a session of its own */
+    private static final Session consoleSession =
+            new Session(new Scanner(System.in), Ui.createConsoleOutput(), true);
+    /** Session served by each thread, if any */
+    private static final ThreadLocal<Session> threadSession = new ThreadLocal<>();
+
+    /**
+     * Represents where a user's input is read from and responses are written to.
+     */
+    private static class Session {
+        /** Scanner to read user input */
+        private Scanner scannerInput;
+        /** Where output is written */
+        private PrintWriter output;
+        /** Whether output is flushed after each response */
+        private boolean isFlushedEachResponse;
+        /** Whether the response is kept in memory until it is complete, rather than written out in chunks */
+        private boolean isResponseHeld;
+        /** Response written to output but not yet to the connection, if the session has one */
+        private final CharArrayWriter responseBuffer;
+        /** Where responses are written out to, or null if output is written out directly */
+        private final Writer connection;
+
+        Session(Scanner scannerInput, PrintWriter output, boolean isFlushedEachResponse) {
+            this.scannerInput = scannerInput;
+            this.output = output;
+            this.isFlushedEachResponse = isFlushedEachResponse;
+            this.responseBuffer = null;
+            this.connection = null;
+        }
+
+        Session(Scanner scannerInput, Writer connection) {
+            this.scannerInput = scannerInput;
+            this.responseBuffer = new CharArrayWriter();
+            this.output = new PrintWriter(this.responseBuffer);
+            this.isFlushedEachResponse = true;
+            this.connection = connection;
+        }
+
+        /**
+         * Writes out any buffered output, to the connection if the session has one.
+         */
+        void flush() {
+            this.output.flush();
+            if (this.connection == null) {
+                return;
+            }
+
+            try {
+                this.responseBuffer.writeTo(this.connection);
+                this.connection.flush();
+
+            } catch (IOException e) {
+                // Connection is lost, so there is no one to read the response
+            }
+            this.responseBuffer.reset();
+        }
+    }
+
+    /**
+     * Starts a session of user input and output for the current thread, such as for a network connection.
+     * Until the session ends, the thread reads and writes the session's input and output,
+     * while other threads keep their own. Output is built in memory, and written to the writer
+     * before the next user input is read, or a chunk of tasks at a time unless the response is held.
+     *
+     * @param reader Where user input is read.
+     * @param writer Where output is written, such as the connection.
+     */
+    public static void startSession(Reader reader, Writer writer) {
+        threadSession.set(new Session(new Scanner(reader), writer));
+    }
+
+    /**
+     * Ends the current thread's session, writing out any buffered output,
+     * so the thread reads and writes standard input and output again.
+     */
+    public static void endSession() {
+        Session session = threadSession.get();
+        if (session != null) {
+            threadSession.remove();
+            session.flush();
+        }
+    }
+
+    /**
+     * Returns the current thread's session, or the console session if it has none.
+     */
+    private static Session getSession() {
+        Session session = threadSession.get();
+        return (session != null) ? session : consoleSession;
+    }
+
+    /**
+     * Redirects output of the current session, such as to a test.
+     *
+     * @param writer Where output is written, or null for standard output.
+     */
+    public static void setOutput(Writer writer) {
+        Ui.flush();
+        Ui.getSession().output = (writer != null) ? new PrintWriter(writer) : Ui.createConsoleOutput();
+    }
+
+    /**
+     * Redirects user input of the current session, such as to a command file.
+     *
+     * @param reader Where user input is read, or null for standard input.
+     */
+    public static void setInput(Reader reader) {
+        Ui.getSession().scannerInput = (reader != null) ? new Scanner(reader) : new Scanner(System.in);
+    }
+
+    /**
+     * Setter for isFlushedEachResponse of the current session.
+     *
+     * @param isFlushedEachResponse If output is flushed after each response, true.
+     *     Otherwise, false to flush only when the buffer fills and on {@link #flush()}.
+     */
+    public static void setFlushedEachResponse(boolean isFlushedEachResponse) {
+        Ui.getSession().isFlushedEachResponse = isFlushedEachResponse;
+    }
+
+    /**
+     * Setter for isResponseHeld of the current session.
+     * A held response is only written out once it is complete, so the thread writing it never waits on the user,
+     * such as while it holds a lock. Otherwise, a long response is written out a chunk of tasks at a time.
+     *
+     * @param isResponseHeld If the response is kept in memory until it is complete, true. Otherwise, false.
+     */
+    public static void setResponseHeld(boolean isResponseHeld) {
+        Ui.getSession().isResponseHeld = isResponseHeld;
+    }
+
+    /**
+     * Writes out any buffered output of the current session.
+     */
+    public static void flush() {
+        Ui.getSession().flush();
+    }
+
+    /**
+     * Returns a buffered writer to standard output, in the same encoding as System.out.
+     */
+    private static PrintWriter createConsoleOutput() {
+        String encoding = System.getProperty("stdout.encoding", System.getProperty("sun.stdout.encoding"));
+        Charset charset = (encoding != null) && Charset.isSupported(encoding)
+                ? Charset.forName(encoding)
+                : Charset.defaultCharset();
+        // Written to the file descriptor, as System.out would flush on every line
+        return new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), charset), OUTPUT_BUFFER_SIZE));
+    }
+
+    /**
+     * Writes the output of the current session built so far to its connection, unless the response is held.
+     * Output to standard output is written out as its buffer fills instead.
+     */
+    private static void writeOutChunk() {
+        Session session = Ui.getSession();
+        if ((session.connection != null) && !session.isResponseHeld) {
+            session.flush();
+        }
+    }
+
+    private static PrintWriter output() {
+        return Ui.getSession().output;
+    }
 
     /**
      * Prints line divider.
      */
     public static void printLineDivider() {
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -27,10 +213,10 @@ public class Ui {
      */
     public static void printWelcome(String name) {
         // Print greeting message
-        System.out.println(LINE_SEP);
-        System.out.println("Hello! I am " + name + "!");
-        System.out.println("What can I do for you?");
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println("Hello! I am " + name + "!");
+        Ui.output().println("What can I do for you?");
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -38,9 +224,9 @@ public class Ui {
      */
     public static void printExit() {
         // Print exit message
-        System.out.println(LINE_SEP);
-        System.out.println("Bye. Hope to see you again soon!");
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println("Bye. Hope to see you again soon!");
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -49,9 +235,9 @@ public class Ui {
      * @param aladdinException The exception whose message is to be printed.
      */
     public static void printException(AladdinException aladdinException) {
-        System.out.println(LINE_SEP);
-        System.out.println("AladdinException: " + aladdinException.getMessage());
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println("AladdinException: " + aladdinException.getMessage());
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -60,9 +246,9 @@ public class Ui {
      * @param msg Message to print.
      */
     public static void printMsg(String msg) {
-        System.out.println(LINE_SEP);
-        System.out.println(msg);
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println(msg);
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -72,10 +258,10 @@ public class Ui {
      * @param obj Object to print its string representation.
      */
     public static void printMsgWithObject(String msg, Object obj) {
-        System.out.println(LINE_SEP);
-        System.out.println(msg);
-        System.out.println(obj);
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println(msg);
+        Ui.output().println(obj);
+        Ui.output().println(LINE_SEP);
     }
 
     /**
@@ -86,27 +272,66 @@ public class Ui {
      * @param msg2 Second message to print.
      */
     public static void printMsgWithObject(String msg1, Object obj, String msg2) {
-        System.out.println(LINE_SEP);
-        System.out.println(msg1);
-        System.out.println(obj);
-        System.out.println(msg2);
-        System.out.println(LINE_SEP);
+        Ui.output().println(LINE_SEP);
+        Ui.output().println(msg1);
+        Ui.output().println(obj);
+        Ui.output().println(msg2);
+        Ui.output().println(LINE_SEP);
+    }
+
+    /**
+     * Prints a message, then tasks of a list numbered with their task numbers.
+     * Tasks are written a chunk at a time, so memory used does not grow with the number of tasks,
+     * unless the response is held.
+     *
+     * @param msg Message to print.
+     * @param taskList The list of tasks to print from.
+     * @param fromIndex Index of the first task to print.
+     * @param toIndex Index just after the last task to print.
+     */
+    public static void printMsgWithTasks(String msg, TaskListView taskList, int fromIndex, int toIndex) {
+        Ui.output().println(LINE_SEP);
+        Ui.output().println(msg);
+
+        StringBuilder chunk = new StringBuilder();
+        for (int i = fromIndex; i < toIndex; i++) {
+            int taskNumber = taskList.getTaskNumber(i);
+            chunk.append(taskNumber).append(". ").append(taskList.renderTask(i)).append(System.lineSeparator());
+
+            if ((i + 1) % TASKS_PER_CHUNK == 0) {
+                Ui.output().print(chunk);
+                chunk.setLength(0);
+                Ui.writeOutChunk();
+            }
+        }
+        if (fromIndex >= toIndex) {
+            // Same blank line as printing an empty list
+            chunk.append(System.lineSeparator());
+        }
+        Ui.output().print(chunk);
+        Ui.output().println(LINE_SEP);
     }
 
     /**
-     * Returns the user input from standard input.
+     * Returns the next line of user input, from the current session.
      *
      * @return The user input as a string.
      */
     public static String getUserInput() {
+        Session session = Ui.getSession();
+        if (session.isFlushedEachResponse) {
+            // Response to the last input is complete
+            session.flush();
+        }
+
         // Return if there is no user input
         // Required for automated text UI test
-        if (!scannerInput.hasNextLine()) {
+        if (!session.scannerInput.hasNextLine()) {
             return null;
         }
 
         // Return user input
-        return scannerInput.nextLine();
+        return session.scannerInput.nextLine();
     }
 
 }
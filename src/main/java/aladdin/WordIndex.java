@@ -0,0 +1,202 @@
+package aladdin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Represents an inverted index from the words in task descriptions to the tasks that contain them.
+ * Words are separated by spaces, so any part of a keyword without a space lies within one word.
+ * A keyword of at least three characters is answered from a trigram index, and a shorter one
+ * from the tasks of the words containing its longest part, which are looked up by that part,
+ * so a search never walks the whole vocabulary. Either way, a search with more candidates than
+ * the task count divided by CANDIDATE_COST returns null, so every task is scanned instead.
+ * Otherwise each candidate is checked against its description, so results are the same as scanning every task.
+ */
+public class WordIndex {
+    /** Number of deleted tasks that triggers removing them from the postings */
+    private static final int MIN_PURGE_COUNT = 1024;
+    /**
+     * Checking a candidate costs about as much as checking this many tasks in a scan,
+     * so a search with more candidates than the task count divided by this is answered by a scan.
+     */
+    private static final int CANDIDATE_COST = 16;
+
+    /** The list of tasks indexed, which gives each task its id */
+    private final TaskList taskList;
+    /** Ids of the tasks containing each word, in the order they were added */
+    private final Map<String, Postings> wordPostings = new HashMap<>();
+    /** Words containing each part of one or two characters, for keywords shorter than a trigram */
+    private final Map<String, List<String>> shortPartWords = new HashMap<>();
+    /** Index of the trigrams in task descriptions, for keywords of at least three characters */
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    /** Number of deleted tasks still in the postings */
+    private int deletedCount;
+
+    /**
+     * Creates an empty WordIndex instance.
+     *
+     * @param taskList The list of tasks indexed.
+     */
+    public WordIndex(TaskList taskList) {
+        this.taskList = taskList;
+    }
+
+    /**
+     * Adds a task to the end of the index.
+     *
+     * @param taskId Id of the task in the list.
+     * @param task The task added to the end of the list.
+     */
+    public void add(int taskId, Task task) {
+
+        String description = task.description;
+        int wordStart = 0;
+        while (wordStart <= description.length()) {
+            int wordEnd = description.indexOf(' ', wordStart);
+            if (wordEnd < 0) {
+                wordEnd = description.length();
+            }
+            if (wordEnd > wordStart) {
+                String word = description.substring(wordStart, wordEnd);
+                Postings postings = this.wordPostings.get(word);
+                if (postings == null) {
+                    postings = new Postings();
+                    this.wordPostings.put(word, postings);
+                    this.addShortParts(word);
+                }
+                postings.add(taskId);
+            }
+            wordStart = wordEnd + 1;
+        }
+        this.trigramIndex.add(taskId, description);
+    }
+
+    /**
+     * Adds a new word to the words of each of its parts shorter than a trigram.
+     */
+    private void addShortParts(String word) {
+        for (int length = 1; length < TrigramIndex.GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= word.length(); i++) {
+                List<String> words = this.shortPartWords.computeIfAbsent(word.substring(i, i + length),
+                        part -> new ArrayList<>());
+                // A part appearing more than once in the word is added once
+                if (words.isEmpty() || (words.get(words.size() - 1) != word)) {
+                    words.add(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a task was deleted from the list.
+     * Its id is left in the postings, and skipped until enough tasks are deleted to remove them all at once.
+     */
+    public void remove() {
+        this.deletedCount++;
+
+        if ((this.deletedCount >= MIN_PURGE_COUNT) && (this.deletedCount > this.taskList.getSize())) {
+            this.purgeDeleted();
+        }
+    }
+
+    /**
+     * Returns the indexes of the tasks whose description contains a keyword.
+     *
+     * @param keyword Keyword to match with the tasks' descriptions.
+     * @return Indexes of the matching tasks in ascending order, or null if every task must be checked instead,
+     *     as the keyword is only spaces or matches too large a share of the tasks to benefit from the index.
+     */
+    public int[] search(String keyword) {
+        if (keyword.length() >= TrigramIndex.GRAM_LENGTH) {
+            return this.searchTrigrams(keyword);
+        }
+
+        String longestPart = "";
+        for (String part : keyword.split(" ")) {
+            if (part.length() > longestPart.length()) {
+                longestPart = part;
+            }
+        }
+        if (longestPart.isEmpty()) {
+            return null;
+        }
+        List<String> words = this.shortPartWords.get(longestPart);
+        if (words == null) {
+            // No word contains this part
+            return new int[0];
+        }
+
+        int maxCandidates = this.taskList.getSize() / CANDIDATE_COST;
+        long candidateCount = 0;
+        for (String word : words) {
+            candidateCount += this.wordPostings.get(word).getSize();
+            if (candidateCount > maxCandidates) {
+                // Checking every candidate would take longer than checking every task
+                return null;
+            }
+        }
+
+        int[] matches = new int[16];
+        int matchCount = 0;
+        for (String word : words) {
+            Postings postings = this.wordPostings.get(word);
+            for (int i = 0; i < postings.getSize(); i++) {
+                int index = this.taskList.indexOfTaskId(postings.get(i));
+                if ((index >= 0) && this.taskList.getTask(index).description.contains(keyword)) {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+                    }
+                    matches[matchCount++] = index;
+                }
+            }
+        }
+
+        // A task containing more than one matching word is found more than once
+        Arrays.sort(matches, 0, matchCount);
+        int uniqueCount = 0;
+        for (int i = 0; i < matchCount; i++) {
+            if ((uniqueCount == 0) || (matches[uniqueCount - 1] != matches[i])) {
+                matches[uniqueCount++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, uniqueCount);
+    }
+
+    private int[] searchTrigrams(String keyword) {
+        int[] candidates = this.trigramIndex.findCandidates(keyword, this.taskList.getSize() / CANDIDATE_COST);
+        if (candidates == null) {
+            return null;
+        }
+
+        int[] matches = new int[candidates.length];
+        int matchCount = 0;
+
+        // Candidates are in ascending id order, which is also list order
+        for (int taskId : candidates) {
+            int index = this.taskList.indexOfTaskId(taskId);
+            if ((index >= 0) && this.taskList.getTask(index).description.contains(keyword)) {
+                matches[matchCount++] = index;
+            }
+        }
+        return Arrays.copyOf(matches, matchCount);
+    }
+
+    /**
+     * Removes the ids of deleted tasks from every word's and trigram's postings, and the words left without tasks.
+     */
+    private void purgeDeleted() {
+        IntPredicate isLive = taskId -> this.taskList.indexOfTaskId(taskId) >= 0;
+        this.wordPostings.values().removeIf(postings -> postings.retain(isLive) == 0);
+        this.shortPartWords.values().removeIf(words -> {
+            words.removeIf(word -> !this.wordPostings.containsKey(word));
+            return words.isEmpty();
+        });
+        this.trigramIndex.removeDeleted(isLive);
+        this.deletedCount = 0;
+    }
+
+}
@@ -0,0 +1,172 @@
+package aladdin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentTaskListTest {
+    private static final int WRITER_COUNT = 4;
+    private static final int TASKS_PER_WRITER = 3000;
+
+    @Test
+    public void addAndDelete_concurrentWritersAndReaders_readersSeeConsistentSnapshots() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_COUNT + 3);
+        List<Future<Integer>> writers = new ArrayList<>();
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITER_COUNT; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                    taskList.addToTaskList(new Todo("writer" + writer + " " + i));
+                }
+                return TASKS_PER_WRITER;
+            }));
+        }
+        Future<Integer> deleter = executor.submit(() -> {
+            int deletedCount = 0;
+            while (isWriting.get()) {
+                if (taskList.deleteTask(1) != null) {
+                    deletedCount++;
+                }
+            }
+            return deletedCount;
+        });
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(ConcurrentTaskListTest.checkSnapshots(taskList, isWriting)));
+        }
+
+        for (Future<Integer> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        isWriting.set(false);
+        int deletedCount = deleter.get(60, TimeUnit.SECONDS);
+        for (Future<Integer> reader : readers) {
+            // Rethrows any failed check
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(WRITER_COUNT * TASKS_PER_WRITER - deletedCount, taskList.getSize());
+    }
+
+    /**
+     * Returns a reader that checks each snapshot of a list is consistent, until writing stops.
+     * Each writer adds its tasks in order, so a snapshot must have each writer's tasks in ascending order.
+     */
+    private static Callable<Integer> checkSnapshots(ConcurrentTaskList taskList, AtomicBoolean isWriting) {
+        return () -> {
+            int snapshotCount = 0;
+            while (isWriting.get()) {
+                TaskListView snapshot = taskList.snapshot();
+                int[] lastNumbers = new int[WRITER_COUNT];
+                Arrays.fill(lastNumbers, -1);
+
+                for (int i = 0; i < snapshot.getSize(); i++) {
+                    String[] parts = snapshot.getTask(i).description.substring("writer".length()).split(" ");
+                    int writer = Integer.parseInt(parts[0]);
+                    int number = Integer.parseInt(parts[1]);
+                    assertTrue(number > lastNumbers[writer], "Tasks of a writer out of order");
+                    lastNumbers[writer] = number;
+                }
+
+                String listed = snapshot.toString();
+                int lineCount = listed.isEmpty() ? 0 : listed.split(System.lineSeparator()).length;
+                assertEquals(snapshot.getSize(), lineCount);
+                snapshotCount++;
+            }
+            return snapshotCount;
+        };
+    }
+
+    @Test
+    public void changeTaskStatuses_concurrentReaders_batchSeenAllOrNothing() throws Exception {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        int[] taskNumbers = new int[1000];
+        for (int i = 0; i < taskNumbers.length; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+            taskNumbers[i] = i + 1;
+        }
+
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Future<?> writer = executor.submit(() -> {
+            for (int round = 0; round < 200; round++) {
+                taskList.changeTaskStatuses(taskNumbers, round % 2 == 0);
+            }
+            isWriting.set(false);
+        });
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                int snapshotCount = 0;
+                while (isWriting.get()) {
+                    TaskListView snapshot = taskList.snapshot();
+                    boolean isDone = snapshot.getTask(0).isDone;
+                    for (int i = 1; i < snapshot.getSize(); i++) {
+                        assertEquals(isDone, snapshot.getTask(i).isDone);
+                    }
+                    snapshotCount++;
+                }
+                return snapshotCount;
+            }));
+        }
+
+        writer.get(60, TimeUnit.SECONDS);
+        for (Future<Integer> reader : readers) {
+            // Rethrows any failed check
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Last round unmarks every task
+        for (int i = 0; i < taskList.getSize(); i++) {
+            assertEquals(false, taskList.getTask(i).isDone);
+        }
+    }
+
+    @Test
+    public void searchTasks_afterChangesAcrossSegments_matchesNumberedInListOrder() {
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        for (int i = 0; i < 1500; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        assertEquals("1000. [T][ ] task 999", taskList.searchTasks("task 999"));
+
+        // Leave the first two segments small enough to be merged with their neighbours
+        int[] taskNumbers = new int[900];
+        Arrays.setAll(taskNumbers, i -> (i < 450) ? i + 1 : i + 63);
+        Task[] deletedTasks = taskList.deleteTasks(taskNumbers);
+        taskList.changeTaskStatus(1, true);
+
+        // Returned in the order they were deleted, from the highest position down
+        assertEquals(900, deletedTasks.length);
+        assertEquals("[T][ ] task 961", deletedTasks[0].toString());
+        assertEquals("[T][ ] task 0", deletedTasks[899].toString());
+
+        assertEquals(600, taskList.getSize());
+        assertEquals("451. [T][X] task 450", taskList.searchTasks("task 450"));
+        assertEquals("1000. [T][ ] task 999" + System.lineSeparator() + "1500. [T][ ] task 1499",
+                taskList.searchTasks("task 999") + System.lineSeparator() + taskList.searchTasks("task 1499"));
+        assertEquals("", taskList.searchTasks("task 961"));
+        String[] listed = taskList.toString().split(System.lineSeparator());
+        assertEquals("512. [T][ ] task 511", listed[61]);
+        assertEquals("963. [T][ ] task 962", listed[62]);
+        assertEquals(62, taskList.indexOfTaskNumber(963));
+        assertEquals(-1, taskList.indexOfTaskNumber(962));
+    }
+
+}
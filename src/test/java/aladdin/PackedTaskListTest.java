@@ -0,0 +1,77 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PackedTaskListTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    public void getTask_packedTasks_sameAsTasksAdded() {
+        PackedTaskList taskList = new PackedTaskList();
+        Deadline deadline = new Deadline("submit caf\u00e9 report", START.plusDays(2));
+        deadline.setDone(true);
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(deadline);
+        taskList.addToTaskList(new Event("project meeting", START, START.plusHours(2)));
+
+        assertEquals("1. [T][ ] read book" + System.lineSeparator()
+                + "2. " + deadline + System.lineSeparator()
+                + "3. " + new Event("project meeting", START, START.plusHours(2)), taskList.toString());
+        assertEquals(deadline.serialise(), taskList.getTask(1).serialise());
+    }
+
+    @Test
+    public void addDeleteAndMark_randomChanges_sameAsTaskList() {
+        TaskList expected = new TaskList();
+        PackedTaskList actual = new PackedTaskList();
+        Random random = new Random(18);
+
+        for (int i = 0; i < 3000; i++) {
+            int choice = random.nextInt(10);
+            if ((choice < 2) && (expected.getSize() > 0)) {
+                int taskNumber = random.nextInt(expected.getSize()) + 1;
+                assertEquals(expected.deleteTask(taskNumber).toString(), actual.deleteTask(taskNumber).toString());
+            } else if ((choice < 3) && (expected.getSize() > 0)) {
+                int taskNumber = random.nextInt(expected.getSize()) + 1;
+                boolean isDone = random.nextBoolean();
+                assertEquals(expected.changeTaskStatus(taskNumber, isDone).toString(),
+                        actual.changeTaskStatus(taskNumber, isDone).toString());
+            } else {
+                Task task = PackedTaskListTest.createTask(random, i);
+                expected.addToTaskList(task.copy());
+                actual.addToTaskList(task);
+            }
+        }
+
+        assertEquals(expected.toString(), actual.toString());
+        for (int taskNumber = 1; taskNumber <= 3000; taskNumber++) {
+            assertEquals(expected.indexOfTaskNumber(taskNumber), actual.indexOfTaskNumber(taskNumber));
+        }
+        assertEquals(expected.searchTasks("task 1"), actual.searchTasks("task 1"));
+        assertEquals(expected.searchTasks("\u00e9"), actual.searchTasks("\u00e9"));
+        assertEquals(expected.searchDeadlines(null, START.plusDays(10)),
+                actual.searchDeadlines(null, START.plusDays(10)));
+        assertEquals(expected.searchEvents(START.plusDays(5), START.plusDays(6)),
+                actual.searchEvents(START.plusDays(5), START.plusDays(6)));
+    }
+
+    private static Task createTask(Random random, int i) {
+        LocalDateTime time = START.plusMinutes(random.nextInt(60 * 24 * 30));
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Deadline("task " + i, time);
+
+        case 1:
+            return new Event("caf\u00e9 " + i, time, time.plusHours(random.nextInt(48)));
+
+        default:
+            return new Todo("task " + i);
+        }
+    }
+
+}
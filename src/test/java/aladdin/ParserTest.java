@@ -1,15 +1,20 @@
 package aladdin;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class ParserTest {
     @Test
     public void parseUserCommand_invalid_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("random");
+            Command command = Parser.parseUserCommand("random");
             fail();
 
         } catch (AladdinException e) {
@@ -20,18 +25,59 @@ public class ParserTest {
     @Test
     public void parseUserCommand_validList_Success() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("list");
-            assertEquals("LIST", formattedCommand[0]);
+            Command command = Parser.parseUserCommand("list");
+            assertEquals(Command.Type.LIST, command.getType());
+            assertEquals(0, command.getPageSize());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_validListPage_Success() {
+        try {
+            Command command = Parser.parseUserCommand("list 200");
+            assertEquals(Command.Type.LIST, command.getType());
+            assertEquals(200, command.getPageSize());
+
+            command = Parser.parseUserCommand("list next");
+            assertEquals(Command.Type.LIST, command.getType());
+            assertTrue(command.isNextPage());
 
         } catch (Exception e) {
             fail();
         }
     }
 
+    @Test
+    public void parseUserCommand_listWithText_everyTaskListed() {
+        try {
+            Command command = Parser.parseUserCommand("list some");
+            assertEquals(Command.Type.LIST, command.getType());
+            assertEquals(0, command.getPageSize());
+            assertFalse(command.isNextPage());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_nonPositiveListPage_exceptionThrown() {
+        try {
+            Command command = Parser.parseUserCommand("list 0");
+            fail();
+
+        } catch (AladdinException e) {
+            assertEquals("Number of tasks to list must be positive.", e.getMessage());
+        }
+    }
+
     @Test
     public void parseUserCommand_invalidMark_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("mark sometask");
+            Command command = Parser.parseUserCommand("mark sometask");
             fail();
 
         } catch (AladdinException e) {
@@ -42,7 +88,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidUnmark_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("unmark sometask2");
+            Command command = Parser.parseUserCommand("unmark sometask2");
             fail();
 
         } catch (AladdinException e) {
@@ -53,7 +99,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDelete_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("delete sometask3");
+            Command command = Parser.parseUserCommand("delete sometask3");
             fail();
 
         } catch (AladdinException e) {
@@ -64,9 +110,9 @@ public class ParserTest {
     @Test
     public void parseUserCommand_validTodo_Success() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("todo eat");
-            assertEquals("TODO", formattedCommand[0]);
-            assertEquals("eat", formattedCommand[1]);
+            Command command = Parser.parseUserCommand("todo eat");
+            assertEquals(Command.Type.TODO, command.getType());
+            assertEquals("eat", command.getDescription());
 
         } catch (Exception e) {
             fail();
@@ -76,7 +122,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidTodo_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("todo");
+            Command command = Parser.parseUserCommand("todo");
             fail();
 
         } catch (AladdinException e) {
@@ -87,7 +133,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidTodoDesc_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("todo ");
+            Command command = Parser.parseUserCommand("todo ");
             fail();
 
         } catch (AladdinException e) {
@@ -98,7 +144,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidTodoDesc2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("todo  ");
+            Command command = Parser.parseUserCommand("todo  ");
             fail();
 
         } catch (AladdinException e) {
@@ -109,7 +155,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidTodoDesc3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("todo hel|o");
+            Command command = Parser.parseUserCommand("todo hel|o");
             fail();
 
         } catch (AladdinException e) {
@@ -120,10 +166,21 @@ public class ParserTest {
     @Test
     public void parseUserCommand_validDeadline_Success() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("deadline eat /by 1-1-2026 1400");
-            assertEquals("DEADLINE", formattedCommand[0]);
-            assertEquals("eat", formattedCommand[1]);
-            assertEquals("1-1-2026 1400", formattedCommand[2]);
+            Command command = Parser.parseUserCommand("deadline eat /by 1-1-2026 1400");
+            assertEquals(Command.Type.DEADLINE, command.getType());
+            assertEquals("eat", command.getDescription());
+            assertEquals(LocalDateTime.of(2026, 1, 1, 14, 0), command.getFrom());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_deadlinePastEndOfMonth_resolvedToLastDay() {
+        try {
+            Command command = Parser.parseUserCommand("deadline eat /by 31-4-2026 0900");
+            assertEquals(LocalDateTime.of(2026, 4, 30, 9, 0), command.getFrom());
 
         } catch (Exception e) {
             fail();
@@ -133,7 +190,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadline_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("deadline");
+            Command command = Parser.parseUserCommand("deadline");
             fail();
 
         } catch (AladdinException e) {
@@ -144,7 +201,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDesc_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("deadline  /by 1-1-2026 1400");
+            Command command = Parser.parseUserCommand("deadline  /by 1-1-2026 1400");
             fail();
 
         } catch (AladdinException e) {
@@ -155,7 +212,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDesc2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Deadline hel|o /by 1-1-2026 1400");
+            Command command = Parser.parseUserCommand("Deadline hel|o /by 1-1-2026 1400");
             fail();
 
         } catch (AladdinException e) {
@@ -166,7 +223,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDesc3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Deadline  ");
+            Command command = Parser.parseUserCommand("Deadline  ");
             fail();
 
         } catch (AladdinException e) {
@@ -177,7 +234,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDesc4_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Deadline /by 1-1-2026 1400");
+            Command command = Parser.parseUserCommand("Deadline /by 1-1-2026 1400");
             fail();
 
         } catch (AladdinException e) {
@@ -188,7 +245,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDesc5_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Deadline a deadline task");
+            Command command = Parser.parseUserCommand("Deadline a deadline task");
             fail();
 
         } catch (AladdinException e) {
@@ -199,7 +256,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDate_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Deadline a deadline task /by tmr");
+            Command command = Parser.parseUserCommand("Deadline a deadline task /by tmr");
             fail();
 
         } catch (AladdinException e) {
@@ -211,7 +268,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDate2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Deadline a deadline task /by 1-12026 1400");
             fail();
 
@@ -226,7 +283,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidDeadlineDate3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Deadline a deadline task /by 1-1-2026 1460");
             fail();
 
@@ -242,12 +299,12 @@ public class ParserTest {
     @Test
     public void parseUserCommand_validEvent_Success() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("event carnival /from 1-1-2026 1400 /to 1-1-2026 1600");
-            assertEquals("EVENT", formattedCommand[0]);
-            assertEquals("carnival", formattedCommand[1]);
-            assertEquals("1-1-2026 1400", formattedCommand[2]);
-            assertEquals("1-1-2026 1600", formattedCommand[3]);
+            assertEquals(Command.Type.EVENT, command.getType());
+            assertEquals("carnival", command.getDescription());
+            assertEquals(LocalDateTime.of(2026, 1, 1, 14, 0), command.getFrom());
+            assertEquals(LocalDateTime.of(2026, 1, 1, 16, 0), command.getTo());
 
         } catch (Exception e) {
             fail();
@@ -257,7 +314,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEvent_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("event");
+            Command command = Parser.parseUserCommand("event");
             fail();
 
         } catch (AladdinException e) {
@@ -268,7 +325,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDesc_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("event  /from 1-1-2026 1400 /to 1-1-2026 1600");
             fail();
 
@@ -280,7 +337,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDesc2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("event hel|o /from 1-1-2026 1400 /to 1-1-2026 1600");
             fail();
 
@@ -292,7 +349,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDesc3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Event  ");
+            Command command = Parser.parseUserCommand("Event  ");
             fail();
 
         } catch (AladdinException e) {
@@ -304,7 +361,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDesc4_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Event /from 1-1-2026 1400");
+            Command command = Parser.parseUserCommand("Event /from 1-1-2026 1400");
             fail();
 
         } catch (AladdinException e) {
@@ -315,7 +372,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDesc5_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Event an event");
+            Command command = Parser.parseUserCommand("Event an event");
             fail();
 
         } catch (AladdinException e) {
@@ -326,7 +383,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDateRange_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1400 /to 1-1-2026 1400");
             fail();
 
@@ -338,7 +395,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventDateRange2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1400 /to 1-1-2026 1200");
             fail();
 
@@ -350,7 +407,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventFromDate_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser.parseUserCommand("Event an event /from tmr /to tmr");
+            Command command = Parser.parseUserCommand("Event an event /from tmr /to tmr");
             fail();
 
         } catch (AladdinException e) {
@@ -362,7 +419,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventFromDate2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1460 /to 1-1-2026 1600");
             fail();
 
@@ -378,7 +435,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventFromDate3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-12026 1400 /to 1-1-2026 1600");
             fail();
 
@@ -393,7 +450,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventToDate_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1400 /to tmr");
             fail();
 
@@ -406,7 +463,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventToDate2_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1400 /to 1-1-2026 1660");
             fail();
 
@@ -422,7 +479,7 @@ public class ParserTest {
     @Test
     public void parseUserCommand_invalidEventToDate3_exceptionThrown() {
         try {
-            String[] formattedCommand = Parser
+            Command command = Parser
                     .parseUserCommand("Event an event /from 1-1-2026 1400 /to 1-12026 1600");
             fail();
 
@@ -434,4 +491,88 @@ public class ParserTest {
         }
     }
 
+    @Test
+    public void parseUserCommand_validBefore_Success() {
+        try {
+            Command command = Parser.parseUserCommand("before 5-1-2026 0900");
+            assertEquals(Command.Type.BEFORE, command.getType());
+            assertEquals(LocalDateTime.of(2026, 1, 5, 9, 0), command.getFrom());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_validBetween_Success() {
+        try {
+            Command command = Parser.parseUserCommand("between 1-1-2026 0000 /and 7-1-2026 2359");
+            assertEquals(Command.Type.BETWEEN, command.getType());
+            assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), command.getFrom());
+            assertEquals(LocalDateTime.of(2026, 1, 7, 23, 59), command.getTo());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_invalidOverlapFormat_exceptionThrown() {
+        try {
+            Command command = Parser.parseUserCommand("overlap 1-1-2026 0000 /and 7-1-2026 2359");
+            fail();
+
+        } catch (AladdinException e) {
+            assertEquals("Invalid overlap format. Please specify {date/time} /to {date/time}.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseUserCommand_overlapStartAfterEnd_exceptionThrown() {
+        try {
+            Command command = Parser.parseUserCommand("overlap 7-1-2026 0000 /to 1-1-2026 0000");
+            fail();
+
+        } catch (AladdinException e) {
+            assertEquals("Start Date/Time must not be after end Date/Time.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseUserCommand_validDeleteRangeAndList_Success() {
+        try {
+            Command command = Parser.parseUserCommand("delete 3,7-9,12");
+            assertEquals(Command.Type.DELETE, command.getType());
+            assertArrayEquals(new int[] {3, 3, 7, 9, 12, 12}, command.getTaskNumberRanges());
+            assertFalse(command.isSingleTaskNumber());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_validMarkSingle_Success() {
+        try {
+            Command command = Parser.parseUserCommand("mark 12");
+            assertEquals(Command.Type.MARK, command.getType());
+            assertArrayEquals(new int[] {12, 12}, command.getTaskNumberRanges());
+            assertTrue(command.isSingleTaskNumber());
+
+        } catch (Exception e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parseUserCommand_invalidMarkRange_exceptionThrown() {
+        try {
+            Command command = Parser.parseUserCommand("mark 500-1");
+            fail();
+
+        } catch (AladdinException e) {
+            assertEquals("Invalid Task Number range: 500-1. Start must not be after end.", e.getMessage());
+        }
+    }
+
 }
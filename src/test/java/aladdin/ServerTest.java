@@ -0,0 +1,138 @@
+package aladdin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerTest {
+    private static final int SESSION_COUNT = 2000;
+
+    @Test
+    public void serve_twoSessions_tasksShared(@TempDir Path tempDir) throws Exception {
+        Storage storage = new Storage(tempDir.resolve("aladdin.txt").toString());
+        Server server = new Server(new Aladdin("Aladdin", new ConcurrentTaskList(), storage), 0);
+        Thread serverThread = new Thread(server::serve);
+        serverThread.start();
+
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader firstReader = new BufferedReader(
+                    new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+            BufferedReader secondReader = new BufferedReader(
+                    new InputStreamReader(second.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("Hello! I am Aladdin!", ServerTest.readWelcome(firstReader));
+            assertEquals("Hello! I am Aladdin!", ServerTest.readWelcome(secondReader));
+
+            Writer firstWriter = new OutputStreamWriter(first.getOutputStream(), StandardCharsets.UTF_8);
+            firstWriter.write("todo a\ntodo b\ntodo c\ndelete 1,3\nbye\n");
+            firstWriter.flush();
+            String firstResponse = ServerTest.readToEnd(firstReader);
+            assertTrue(firstResponse.contains("1. [T][ ] a" + System.lineSeparator() + "3. [T][ ] c"),
+                    firstResponse);
+
+            Writer secondWriter = new OutputStreamWriter(second.getOutputStream(), StandardCharsets.UTF_8);
+            secondWriter.write("list\nbye\n");
+            secondWriter.flush();
+            String secondResponse = ServerTest.readToEnd(secondReader);
+            assertTrue(secondResponse.contains("Here are the tasks in your list:" + System.lineSeparator()
+                    + "2. [T][ ] b" + System.lineSeparator()), secondResponse);
+
+        } finally {
+            server.close();
+            serverThread.join();
+            storage.close();
+        }
+    }
+
+    /**
+     * Opens thousands of connections at once, so it needs a high open file limit,
+     * and is only run by the loadTest task.
+     */
+    @Test
+    @Tag("load")
+    public void serve_thousandsOfConcurrentSessions_everyTaskAddedAndSaved(@TempDir Path tempDir) throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        Storage storage = new Storage(filePath);
+        ConcurrentTaskList taskList = new ConcurrentTaskList();
+        Server server = new Server(new Aladdin("Aladdin", taskList, storage), 0);
+        Thread serverThread = new Thread(server::serve);
+        serverThread.start();
+
+        List<Socket> sockets = new ArrayList<>();
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            // Every session is started before any user leaves, so all of them are open at once
+            for (int i = 0; i < SESSION_COUNT; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                sockets.add(socket);
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                readers.add(reader);
+            }
+            for (BufferedReader reader : readers) {
+                assertEquals("Hello! I am Aladdin!", ServerTest.readWelcome(reader));
+            }
+
+            for (int i = 0; i < SESSION_COUNT; i++) {
+                Writer writer = new OutputStreamWriter(sockets.get(i).getOutputStream(), StandardCharsets.UTF_8);
+                writer.write("todo task " + i + "\nlist 1\nbye\n");
+                writer.flush();
+            }
+            for (int i = 0; i < SESSION_COUNT; i++) {
+                String response = ServerTest.readToEnd(readers.get(i));
+                assertTrue(response.contains("[T][ ] task " + i + System.lineSeparator()), response);
+                assertTrue(response.contains("Here are tasks 1 to 1 of "), response);
+                assertTrue(response.contains("Bye. Hope to see you again soon!"), response);
+            }
+
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            server.close();
+            serverThread.join();
+        }
+
+        assertEquals(SESSION_COUNT, taskList.getSize());
+        storage.close();
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        assertEquals(SESSION_COUNT, loadedTaskList.getSize());
+    }
+
+    /**
+     * Returns the greeting line of a session's welcome message, once the whole message is read.
+     */
+    private static String readWelcome(BufferedReader reader) throws IOException {
+        reader.readLine();
+        String greeting = reader.readLine();
+        reader.readLine();
+        reader.readLine();
+        return greeting;
+    }
+
+    private static String readToEnd(BufferedReader reader) throws IOException {
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            response.append(line).append(System.lineSeparator());
+        }
+        return response.toString();
+    }
+
+}
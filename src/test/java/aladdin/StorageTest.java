@@ -1,6 +1,15 @@
 package aladdin;
 
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,6 +72,16 @@ public class StorageTest {
         }
     }
 
+    @Test
+    public void deserialiseTask_repeatedDescription_descriptionShared() {
+        DescriptionPool descriptionPool = new DescriptionPool(16);
+        Task first = Storage.deserialiseTask("T|0|submit timesheet", descriptionPool);
+        Task second = Storage.deserialiseTask("D|1|submit timesheet|6-6-2026 1800", descriptionPool);
+
+        assertSame(first.description, second.description);
+        assertEquals("[D][X] submit timesheet (By: 6 Jun 2026 6:00 pm)", second.toString());
+    }
+
     @Test
     public void deserialiseTask_invalidTodo_exceptionThrown() {
         assertThrows(ArrayIndexOutOfBoundsException.class,
@@ -84,4 +103,380 @@ public class StorageTest {
         );
     }
 
+    @Test
+    public void load_mutationLog_changesReplayed(@TempDir Path tempDir) throws AladdinException {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        Storage testStorage = new Storage(filePath);
+        testStorage.appendAdd(new Todo("read book"));
+        testStorage.appendAdd(new Todo("return book"));
+        testStorage.appendAdd(new Todo("buy lunch"));
+        testStorage.appendStatus(3, true);
+        testStorage.appendDelete(1);
+        testStorage.close();
+
+        TaskList taskList = new TaskList();
+        new Storage(filePath).load(taskList);
+        assertEquals(2, taskList.getSize());
+        assertEquals("[T][ ] return book", taskList.getTask(0).toString());
+        assertEquals("[T][X] buy lunch", taskList.getTask(1).toString());
+    }
+
+    @Test
+    public void save_mutationLog_cleared(@TempDir Path tempDir) throws AladdinException {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        Storage testStorage = new Storage(filePath);
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        testStorage.appendAdd(taskList.getTask(0));
+        testStorage.save(taskList);
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        assertEquals(1, loadedTaskList.getSize());
+    }
+
+    @Test
+    public void appendAdd_compactionThresholdReached_logFoldedIntoFile(@TempDir Path tempDir)
+            throws AladdinException {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        Storage testStorage = new Storage(filePath);
+        testStorage.setCompactionThreshold(2, 0);
+        for (int i = 1; i <= 5; i++) {
+            testStorage.appendAdd(new Todo("task " + i));
+        }
+        testStorage.appendStatus(5, true);
+        testStorage.close();
+
+        assertTrue(tempDir.resolve("aladdin.txt").toFile().isFile());
+        TaskList taskList = new TaskList();
+        new Storage(filePath).load(taskList);
+        assertEquals(5, taskList.getSize());
+        assertEquals("[T][ ] task 1", taskList.getTask(0).toString());
+        assertEquals("[T][X] task 5", taskList.getTask(4).toString());
+    }
+
+    @Test
+    public void save_binaryFormat_sameTasksLoaded(@TempDir Path tempDir) throws AladdinException {
+        String filePath = tempDir.resolve("aladdin.bin").toString();
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Deadline("return book", LocalDateTime.of(2026, 6, 6, 18, 0)));
+        taskList.addToTaskList(new Event("project meeting",
+                LocalDateTime.of(2026, 8, 6, 14, 0), LocalDateTime.of(2026, 8, 6, 16, 0)));
+        taskList.changeTaskStatus(2, true);
+        new Storage(filePath, Storage.Format.BINARY).save(taskList);
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath, Storage.Format.BINARY).load(loadedTaskList);
+        assertEquals(taskList.toString(), loadedTaskList.toString());
+    }
+
+    @Test
+    public void convertFrom_textToBinary_sameTasksLoaded(@TempDir Path tempDir) throws AladdinException {
+        Storage textStorage = new Storage(tempDir.resolve("aladdin.txt").toString());
+        textStorage.appendAdd(new Todo("read book"));
+        textStorage.appendAdd(new Deadline("return book", LocalDateTime.of(2026, 6, 6, 18, 0)));
+        textStorage.appendStatus(1, true);
+        textStorage.close();
+
+        Storage binaryStorage = new Storage(tempDir.resolve("aladdin.bin").toString(), Storage.Format.BINARY);
+        binaryStorage.convertFrom(new Storage(tempDir.resolve("aladdin.txt").toString()));
+        assertFalse(new Storage(tempDir.resolve("aladdin.txt").toString()).hasSavedTasks());
+
+        TaskList taskList = new TaskList();
+        binaryStorage.load(taskList);
+        assertEquals(2, taskList.getSize());
+        assertEquals("T|1|read book", taskList.getTask(0).serialise());
+        assertEquals("D|0|return book|6-6-2026 1800", taskList.getTask(1).serialise());
+    }
+
+    @Test
+    public void close_onExitDurability_pendingChangesWritten(@TempDir Path tempDir) throws AladdinException {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        Storage testStorage = new Storage(filePath);
+        testStorage.setDurability(MutationLog.Durability.ON_EXIT, 0);
+        for (int i = 1; i <= 100; i++) {
+            testStorage.appendAdd(new Todo("task " + i));
+        }
+        testStorage.appendDelete(1);
+        testStorage.close();
+
+        TaskList taskList = new TaskList();
+        new Storage(filePath).load(taskList);
+        assertEquals(99, taskList.getSize());
+        assertEquals("T|0|task 2", taskList.getTask(0).serialise());
+    }
+
+    @Test
+    public void appendAdd_intervalWriteFails_failureReportedAndRetried(@TempDir Path tempDir) throws Exception {
+        // A file in place of the parent directory stops the log file from being created
+        Path blockingFile = Files.createFile(tempDir.resolve("blocked"));
+        String filePath = blockingFile.resolve("aladdin.txt").toString();
+        Storage testStorage = new Storage(filePath);
+        testStorage.setDurability(MutationLog.Durability.INTERVAL, 1);
+
+        StringWriter writer = new StringWriter();
+        Ui.setOutput(writer);
+        try {
+            testStorage.appendAdd(new Todo("read book"));
+            long deadlineMillis = System.currentTimeMillis() + 10000;
+            while (!writer.toString().contains("Error writing to " + filePath + ".log file")) {
+                assertTrue(System.currentTimeMillis() < deadlineMillis);
+                Thread.sleep(10);
+            }
+
+        } finally {
+            Ui.setOutput(null);
+        }
+        assertThrows(AladdinException.class, testStorage::close);
+
+        // The failed record is still pending, so it is written once the log file can be created
+        Files.delete(blockingFile);
+        testStorage.close();
+        TaskList taskList = new TaskList();
+        new Storage(filePath).load(taskList);
+        assertEquals(1, taskList.getSize());
+        assertEquals("T|0|read book", taskList.getTask(0).serialise());
+    }
+
+    @Test
+    public void load_tornLastLine_earlierTasksLoaded(@TempDir Path tempDir) throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Todo("return book"));
+        new Storage(filePath).save(taskList);
+
+        // Simulate a crash part way through writing the last line
+        Path snapshotPath = tempDir.resolve("aladdin.txt");
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        Files.write(snapshotPath, Arrays.copyOf(bytes, bytes.length - 5));
+
+        TaskList loadedTaskList = new TaskList();
+        AladdinException e = assertThrows(AladdinException.class,
+                () -> new Storage(filePath).load(loadedTaskList));
+        assertTrue(e.getMessage().startsWith("Skipped corrupted data at the end of " + filePath + " (1 lines)"));
+        assertEquals(1, loadedTaskList.getSize());
+        assertEquals("T|0|read book", loadedTaskList.getTask(0).serialise());
+        assertTrue(Files.exists(tempDir.resolve("aladdin.txt.corrupt")));
+
+        // Tasks loaded are saved again, so the corruption is only reported once
+        TaskList reloadedTaskList = new TaskList();
+        new Storage(filePath).load(reloadedTaskList);
+        assertEquals(1, reloadedTaskList.getSize());
+    }
+
+    @Test
+    public void load_corruptedBinaryRecord_earlierTasksLoaded(@TempDir Path tempDir) throws Exception {
+        String filePath = tempDir.resolve("aladdin.bin").toString();
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Todo("return book"));
+        new Storage(filePath, Storage.Format.BINARY).save(taskList);
+
+        // Flip a byte in the description of the last task
+        Path snapshotPath = tempDir.resolve("aladdin.bin");
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(snapshotPath, bytes);
+
+        TaskList loadedTaskList = new TaskList();
+        assertThrows(AladdinException.class, () -> new Storage(filePath, Storage.Format.BINARY).load(loadedTaskList));
+        assertEquals(1, loadedTaskList.getSize());
+        assertEquals("T|0|read book", loadedTaskList.getTask(0).serialise());
+    }
+
+    @Test
+    public void appendStatus_compactionThresholdReached_recordPatchedInPlace(@TempDir Path tempDir)
+            throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 4; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        new Storage(filePath).save(taskList);
+        long savedSize = Files.size(tempDir.resolve("aladdin.txt"));
+
+        Storage testStorage = new Storage(filePath);
+        testStorage.setCompactionThreshold(1, 0);
+        testStorage.appendStatus(2, true);
+        testStorage.close();
+        assertEquals(savedSize, Files.size(tempDir.resolve("aladdin.txt")));
+
+        testStorage = new Storage(filePath);
+        testStorage.setCompactionThreshold(3, 0);
+        testStorage.appendDelete(1);
+        testStorage.appendAdd(new Todo("task 5"));
+        testStorage.appendStatus(4, true);
+        testStorage.close();
+        assertFalse(Files.exists(tempDir.resolve("aladdin.txt.log.1")));
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        assertEquals(4, loadedTaskList.getSize());
+        assertEquals("T|1|task 2", loadedTaskList.getTask(0).serialise());
+        assertEquals("T|0|task 3", loadedTaskList.getTask(1).serialise());
+        assertEquals("T|0|task 4", loadedTaskList.getTask(2).serialise());
+        assertEquals("T|1|task 5", loadedTaskList.getTask(3).serialise());
+    }
+
+    @Test
+    public void load_pagedTaskList_sameTasksAsFullLoad(@TempDir Path tempDir) throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 600; i++) {
+            taskList.addToTaskList(new Deadline("task " + i, LocalDateTime.of(2026, 6, 6, 18, 0)));
+        }
+        new Storage(filePath).save(taskList);
+        Storage testStorage = new Storage(filePath);
+        testStorage.appendDelete(3);
+        testStorage.appendStatus(300, true);
+        testStorage.appendAdd(new Todo("task 601"));
+        testStorage.close();
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        PagedTaskList pagedTaskList = new PagedTaskList(1);
+        Storage pagedStorage = new Storage(filePath);
+        pagedStorage.load(pagedTaskList);
+
+        assertEquals(600, pagedTaskList.getSize());
+        pagedTaskList.changeTaskStatus(1, true);
+        loadedTaskList.changeTaskStatus(1, true);
+        pagedTaskList.deleteTask(500);
+        loadedTaskList.deleteTask(500);
+        for (int i = 0; i < loadedTaskList.getSize(); i++) {
+            assertEquals(loadedTaskList.getTask(i).serialise(), pagedTaskList.getTask(i).serialise());
+        }
+        assertEquals(loadedTaskList.searchTasks("task 30"), pagedTaskList.searchTasks("task 30"));
+        assertEquals(loadedTaskList.toString(), pagedTaskList.toString());
+        assertEquals(-1, pagedTaskList.indexOfTaskNumber(3));
+        assertEquals(598, pagedTaskList.indexOfTaskNumber(601));
+        pagedStorage.close();
+    }
+
+    @Test
+    public void appendAdd_pagedCompactionThresholdReached_logFoldedIntoFile(@TempDir Path tempDir)
+            throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        TaskList taskList = new TaskList();
+        for (int i = 1; i <= 300; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        new Storage(filePath).save(taskList);
+
+        PagedTaskList pagedTaskList = new PagedTaskList(1);
+        Storage pagedStorage = new Storage(filePath);
+        pagedStorage.load(pagedTaskList);
+        pagedStorage.setCompactionThreshold(3, 0);
+        pagedTaskList.deleteTask(1);
+        pagedStorage.appendDelete(1);
+        pagedTaskList.changeTaskStatus(260, true);
+        pagedStorage.appendStatus(260, true);
+        Todo addedTask = new Todo("task 301");
+        pagedTaskList.addToTaskList(addedTask);
+        pagedStorage.appendAdd(addedTask);
+
+        // Folded in the background while still paged, rather than when closed
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (Files.exists(tempDir.resolve("aladdin.txt.log.1")) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(tempDir.resolve("aladdin.txt.log")));
+        assertFalse(Files.exists(tempDir.resolve("aladdin.txt.log.1")));
+        TaskList compactedTaskList = new TaskList();
+        TaskFileReader.read(tempDir.resolve("aladdin.txt"), compactedTaskList, new DescriptionPool(16));
+        assertEquals(pagedTaskList.toString(), compactedTaskList.toString());
+        assertEquals(300, pagedTaskList.getSize());
+        assertEquals("T|0|task 2", pagedTaskList.getTask(0).serialise());
+        assertEquals("T|1|task 261", pagedTaskList.getTask(259).serialise());
+        assertEquals("T|0|task 301", pagedTaskList.getTask(299).serialise());
+        // Task numbers are kept when the list is backed by the compacted file
+        assertEquals(2, pagedTaskList.getTaskNumber(0));
+        assertEquals(301, pagedTaskList.getTaskNumber(299));
+        assertEquals(259, pagedTaskList.indexOfTaskNumber(261));
+        assertEquals(-1, pagedTaskList.indexOfTaskNumber(1));
+
+        pagedTaskList.deleteTask(2);
+        pagedStorage.appendDelete(2);
+        pagedStorage.close();
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        assertEquals(299, loadedTaskList.getSize());
+        assertEquals("T|0|task 2", loadedTaskList.getTask(0).serialise());
+        assertEquals("T|0|task 4", loadedTaskList.getTask(1).serialise());
+        assertEquals("T|1|task 261", loadedTaskList.getTask(258).serialise());
+    }
+
+    @Test
+    public void load_afterCompaction_taskNumbersKept(@TempDir Path tempDir) throws Exception {
+        for (Storage.Format format : Storage.Format.values()) {
+            String filePath = tempDir.resolve("aladdin." + format).toString();
+            TaskList taskList = new TaskList();
+            Storage testStorage = new Storage(filePath, format);
+            // Compacted after every change, so deletes are folded into the file, then rewrite it
+            testStorage.setCompactionThreshold(1, 0);
+            for (int i = 1; i <= 8; i++) {
+                Todo task = new Todo("task " + i);
+                taskList.addToTaskList(task);
+                testStorage.appendAdd(task);
+            }
+            for (int taskNumber : new int[] {2, 8, 7, 3, 4, 5}) {
+                int position = taskList.indexOfTaskNumber(taskNumber) + 1;
+                taskList.deleteTask(position);
+                testStorage.appendDelete(position);
+            }
+            testStorage.close();
+
+            TaskList loadedTaskList = new TaskList();
+            new Storage(filePath, format).load(loadedTaskList);
+            assertEquals("1. [T][ ] task 1" + System.lineSeparator() + "6. [T][ ] task 6",
+                    loadedTaskList.toString());
+            assertEquals(9, loadedTaskList.getNextTaskNumber());
+
+            // Kept again by a list read from a file with skip records
+            loadedTaskList.addToTaskList(new Todo("task 9"));
+            new Storage(filePath, format).save(loadedTaskList);
+            TaskList reloadedTaskList = new TaskList();
+            new Storage(filePath, format).load(reloadedTaskList);
+            assertEquals(loadedTaskList.toString(), reloadedTaskList.toString());
+            assertEquals(1, reloadedTaskList.indexOfTaskNumber(6));
+        }
+
+        PagedTaskList pagedTaskList = new PagedTaskList(1);
+        Storage pagedStorage = new Storage(tempDir.resolve("aladdin.TEXT").toString());
+        pagedStorage.load(pagedTaskList);
+        assertEquals("1. [T][ ] task 1" + System.lineSeparator() + "6. [T][ ] task 6"
+                + System.lineSeparator() + "9. [T][ ] task 9", pagedTaskList.toString());
+        assertEquals(10, pagedTaskList.getNextTaskNumber());
+        pagedStorage.close();
+    }
+
+    @Test
+    public void appendDeletes_deletedTaskList_sameTasksLoaded(@TempDir Path tempDir) throws Exception {
+        String filePath = tempDir.resolve("aladdin.txt").toString();
+        TaskList taskList = new TaskList();
+        Storage testStorage = new Storage(filePath);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            tasks.add(new Todo("task " + i));
+            taskList.addToTaskList(tasks.get(i - 1));
+        }
+        testStorage.appendAdds(tasks);
+
+        int[] taskNumbers = new int[] {2, 4, 5};
+        taskList.changeTaskStatuses(new int[] {1, 2}, true);
+        testStorage.appendStatuses(new int[] {1, 2}, true);
+        taskList.deleteTasks(taskNumbers);
+        testStorage.appendDeletes(new int[] {5, 4, 2});
+        testStorage.close();
+
+        TaskList loadedTaskList = new TaskList();
+        new Storage(filePath).load(loadedTaskList);
+        assertEquals(taskList.toString(), loadedTaskList.toString());
+        assertEquals("1. [T][X] task 1" + System.lineSeparator() + "3. [T][ ] task 3"
+                + System.lineSeparator() + "6. [T][ ] task 6", loadedTaskList.toString());
+    }
+
 }
@@ -0,0 +1,159 @@
+package aladdin;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskListTest {
+    @Test
+    public void searchTasks_partOfWord_matchesNumberedInListOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read notebook"));
+        taskList.addToTaskList(new Todo("buy lunch"));
+        taskList.addToTaskList(new Todo("return book"));
+
+        assertEquals("1. [T][ ] read notebook" + System.lineSeparator() + "3. [T][ ] return book",
+                taskList.searchTasks("book"));
+        assertEquals("1. [T][ ] read notebook", taskList.searchTasks("ad note"));
+        assertEquals("", taskList.searchTasks("dinner"));
+    }
+
+    @Test
+    public void changeTaskStatus_afterListing_listShowsNewStatus() {
+        TaskList taskList = new TaskList();
+        taskList.setRenderCache(new RenderCache(16));
+        taskList.addToTaskList(new Deadline("return book", LocalDateTime.of(2026, 1, 1, 16, 0)));
+        assertEquals("1. [D][ ] return book (By: 1 Jan 2026 4:00 pm)", taskList.toString());
+
+        taskList.changeTaskStatus(1, true);
+        assertEquals("1. [D][X] return book (By: 1 Jan 2026 4:00 pm)", taskList.toString());
+    }
+
+    @Test
+    public void searchTasks_afterAddAndDelete_indexKeptUpToDate() {
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Todo("return book"));
+        assertEquals("1. [T][ ] read book" + System.lineSeparator() + "2. [T][ ] return book",
+                taskList.searchTasks("book"));
+
+        taskList.deleteTask(1);
+        taskList.addToTaskList(new Todo("book flights"));
+        assertEquals("2. [T][ ] return book" + System.lineSeparator() + "3. [T][ ] book flights",
+                taskList.searchTasks("book"));
+    }
+
+    @Test
+    public void searchTasks_manyTasksDeleted_onlyRemainingTasksMatched() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 3000; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        // Enough deletes to remove deleted tasks from the index
+        for (int i = 0; i < 2000; i++) {
+            taskList.deleteTask(1);
+        }
+
+        assertEquals("", taskList.searchTasks("task 1999"));
+        assertEquals("2001. [T][ ] task 2000", taskList.searchTasks("task 2000"));
+        assertEquals("3000. [T][ ] task 2999", taskList.searchTasks("sk 2999"));
+    }
+
+    @Test
+    public void deleteTask_deletesThenAddsPastCompaction_tasksKeepListOrder() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 20; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        taskList.searchTasks("task");
+        // Delete every even task, then add enough tasks to compact the list
+        for (int i = 1; i <= 10; i++) {
+            taskList.deleteTask(i);
+        }
+        for (int i = 20; i < 40; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+
+        assertEquals(30, taskList.getSize());
+        assertEquals("task 1", taskList.getTask(0).description);
+        assertEquals("task 19", taskList.getTask(9).description);
+        assertEquals("task 20", taskList.getTask(10).description);
+        assertEquals("20. [T][ ] task 19" + System.lineSeparator() + "39. [T][ ] task 38",
+                taskList.searchTasks("task 19") + System.lineSeparator() + taskList.searchTasks("task 38"));
+    }
+
+    @Test
+    public void searchTasks_shortKeyword_sameMatchesFromIndexOrScan() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 100; i++) {
+            taskList.addToTaskList(new Todo("task " + i));
+        }
+        taskList.addToTaskList(new Todo("buy ox"));
+
+        // Few candidates, so answered from the index
+        assertEquals("101. [T][ ] buy ox", taskList.searchTasks("ox"));
+        assertEquals("101. [T][ ] buy ox", taskList.searchTasks("o"));
+        assertEquals("78. [T][ ] task 77", taskList.searchTasks("77"));
+        assertEquals("", taskList.searchTasks("z"));
+        // Too many candidates, so answered by checking every task
+        assertEquals(100, taskList.searchTasks("k").split(System.lineSeparator()).length);
+        assertEquals(19, taskList.searchTasks("9").split(System.lineSeparator()).length);
+        assertEquals("10. [T][ ] task 9", taskList.searchTasks("9").split(System.lineSeparator())[0]);
+    }
+
+    @Test
+    public void searchTasks_onlySpaces_everyTaskWithSpaceMatched() {
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Todo("lunch"));
+
+        assertEquals("1. [T][ ] read book", taskList.searchTasks(" "));
+    }
+
+    @Test
+    public void searchDeadlinesAndEvents_afterDelete_matchesNumberedInListOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Deadline("return book", LocalDateTime.of(2026, 1, 5, 16, 0)));
+        taskList.addToTaskList(new Event("project meeting",
+                LocalDateTime.of(2026, 1, 2, 14, 0), LocalDateTime.of(2026, 1, 2, 16, 0)));
+        taskList.addToTaskList(new Todo("buy lunch"));
+        taskList.addToTaskList(new Deadline("do homework", LocalDateTime.of(2026, 1, 1, 16, 0)));
+        taskList.addToTaskList(new Event("carnival",
+                LocalDateTime.of(2026, 1, 1, 9, 0), LocalDateTime.of(2026, 1, 6, 18, 0)));
+
+        assertEquals("1. [D][ ] return book (By: 5 Jan 2026 4:00 pm)" + System.lineSeparator()
+                + "4. [D][ ] do homework (By: 1 Jan 2026 4:00 pm)",
+                taskList.searchDeadlines(null, LocalDateTime.of(2026, 1, 5, 16, 0)));
+        assertEquals("4. [D][ ] do homework (By: 1 Jan 2026 4:00 pm)",
+                taskList.searchDeadlines(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 2, 0, 0)));
+
+        taskList.deleteTask(1);
+        taskList.addToTaskList(new Event("concert",
+                LocalDateTime.of(2026, 1, 2, 16, 0), LocalDateTime.of(2026, 1, 2, 18, 0)));
+        assertEquals("",
+                taskList.searchDeadlines(LocalDateTime.of(2026, 1, 5, 0, 0), LocalDateTime.of(2026, 1, 6, 0, 0)));
+        assertEquals("2. [E][ ] project meeting (From: 2 Jan 2026 2:00 pm. To: 2 Jan 2026 4:00 pm)"
+                + System.lineSeparator()
+                + "5. [E][ ] carnival (From: 1 Jan 2026 9:00 am. To: 6 Jan 2026 6:00 pm)"
+                + System.lineSeparator()
+                + "6. [E][ ] concert (From: 2 Jan 2026 4:00 pm. To: 2 Jan 2026 6:00 pm)",
+                taskList.searchEvents(LocalDateTime.of(2026, 1, 2, 16, 0), LocalDateTime.of(2026, 1, 2, 17, 0)));
+    }
+
+    @Test
+    public void searchDeadlinesBefore_dueAtAndJustBefore_onlyEarlierMatched() {
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Deadline("return book", LocalDateTime.of(2026, 1, 5, 16, 0)));
+        taskList.addToTaskList(new Deadline("do homework", LocalDateTime.of(2026, 1, 5, 15, 59, 59, 500_000_000)));
+        taskList.addToTaskList(new Deadline("pay fees", LocalDateTime.of(2026, 1, 5, 16, 1)));
+
+        assertEquals("2. [D][ ] do homework (By: 5 Jan 2026 3:59 pm)",
+                taskList.searchDeadlinesBefore(LocalDateTime.of(2026, 1, 5, 16, 0)));
+        assertEquals("1. [D][ ] return book (By: 5 Jan 2026 4:00 pm)" + System.lineSeparator()
+                + "2. [D][ ] do homework (By: 5 Jan 2026 3:59 pm)",
+                taskList.searchDeadlinesBefore(LocalDateTime.of(2026, 1, 5, 16, 1)));
+    }
+
+}
@@ -0,0 +1,33 @@
+package aladdin;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UiTest {
+    @Test
+    public void printMsgWithTasks_redirectedOutput_tasksWrittenToWriter() {
+        StringWriter writer = new StringWriter();
+        TaskList taskList = new TaskList();
+        taskList.addToTaskList(new Todo("read book"));
+        taskList.addToTaskList(new Todo("return book"));
+
+        Ui.setOutput(writer);
+        try {
+            Ui.printMsgWithTasks("Here are the tasks in your list:", taskList, 0, taskList.getSize());
+            Ui.flush();
+
+        } finally {
+            Ui.setOutput(null);
+        }
+
+        String lineSeparator = System.lineSeparator();
+        String divider = "_".repeat(60);
+        assertEquals(divider + lineSeparator + "Here are the tasks in your list:" + lineSeparator
+                + "1. [T][ ] read book" + lineSeparator + "2. [T][ ] return book" + lineSeparator
+                + divider + lineSeparator, writer.toString());
+    }
+
+}